@@ -27,14 +27,14 @@
 package com.github.julianthome.automate.core;
 
 import com.github.julianthome.automate.exception.NotImplementedException;
-import com.github.julianthome.automate.slicer.AutomatonSlicerBackward;
-import com.github.julianthome.automate.slicer.AutomatonSlicerForward;
-import com.github.julianthome.automate.utils.Tuple;
+import com.github.julianthome.automate.matcher.CompiledMatcher;
+import com.github.julianthome.automate.matcher.NfaMatcher;
 import org.jgrapht.graph.DirectedPseudograph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -48,6 +48,8 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
 
     protected int snum = 0;
 
+    // true if this automaton is known to be the minimal DFA of its language
+    boolean canonical = true;
 
     BasicOperations<T> dispatch = null;
 
@@ -75,11 +77,12 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
         for (Transition e : es) {
             addTransition(new Transition(smap.get(e.getSource()),
                     smap.get(e.getTarget()),
-                    e.getLabel().clone()));
+                    e.getLabel()));
         }
 
         assert a.start != null;
         snum = a.snum;
+        canonical = a.canonical;
         dispatch = BasicOperations.getInstance();
         dispatch.init(provider);
     }
@@ -89,21 +92,15 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
                                 Collection<Transition> t) {
         super(Transition.class);
 
-        Map<State, State> smap = new HashMap<>();
+        this.start = start;
+        addVertex(start);
+        snum = start.getId() + 1;
 
         for (Transition trans : t) {
-
-            smap.put(trans.getSource(), createNewState(trans.getSource().getKind()));
-
-            smap.put(trans.getTarget(), createNewState(trans.getTarget().getKind()));
-
-            if (start.equals(trans.getSource()))
-                this.start = trans.getSource();
-
-            if (start.equals(trans.getTarget()))
-                this.start = trans.getTarget();
-
             addTransition(trans);
+            // new states must not take the id of a given one
+            snum = Math.max(snum, Math.max(trans.getSource().getId(), trans
+                    .getTarget().getId()) + 1);
         }
         dispatch = BasicOperations.getInstance();
         dispatch.init(provider);
@@ -121,9 +118,36 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
 
 
     public boolean isEmpty() {
+        return dispatch.isEmpty((T)this);
+    }
+
+    /**
+     * @return true if this automaton consists of its start state only; unlike
+     * {@link #isEmpty()}, this only looks at the structure
+     */
+    boolean isSingleState() {
         return vertexSet().size() == 1 && edgeSet().size() == 0;
     }
 
+    /**
+     * @return false if this automaton may not be the minimal DFA of its
+     * language, e.g. because it was produced by an operation in deferred
+     * mode or modified with {@link #addTransition(Transition)}
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /**
+     * Minimizes this automaton unless it is known to be canonical already.
+     *
+     * @see BasicOperations#setDeferred(boolean)
+     */
+    public void canonicalize() {
+        if (!canonical)
+            minimize();
+    }
+
 
     public boolean addTransition(Transition trans) {
         return addEdge(trans.getSource(), trans.getTarget(), trans);
@@ -138,6 +162,7 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
         if (!vertexSet().contains(tar))
             super.addVertex(tar);
 
+        canonical = false;
         return super.addEdge(src, tar, t);
     }
 
@@ -146,6 +171,24 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
         throw new NotImplementedException();
     }
 
+    @Override
+    public boolean removeEdge(Transition t) {
+        canonical = false;
+        return super.removeEdge(t);
+    }
+
+    @Override
+    public Transition removeEdge(State src, State tar) {
+        canonical = false;
+        return super.removeEdge(src, tar);
+    }
+
+    @Override
+    public boolean removeVertex(State s) {
+        canonical = false;
+        return super.removeVertex(s);
+    }
+
     private void addTransitions(Collection<Transition> trans) {
         trans.stream().forEach(t -> addTransition(t));
     }
@@ -215,11 +258,33 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
         return dispatch.intersect((T) this, other);
     }
 
+    /**
+     * @see BasicOperations#isEmptyIntersection(AbstractAutomaton,
+     * AbstractAutomaton)
+     */
+    public boolean isEmptyIntersection(T other) {
+        return dispatch.isEmptyIntersection((T) this, other);
+    }
+
+    /**
+     * @return a shortest string accepted by this automaton and other, or
+     * null if there is none
+     * @see BasicOperations#findIntersectionWitness(AbstractAutomaton,
+     * AbstractAutomaton)
+     */
+    public String findIntersectionWitness(T other) {
+        return dispatch.findIntersectionWitness((T) this, other);
+    }
+
     @Override
     public T determinize() {
         return dispatch.determinize((T)this);
     }
 
+    public T determinize(ForkJoinPool pool) {
+        return dispatch.determinize((T)this, pool);
+    }
+
     @Override
     public T expand(){
         return dispatch.expand((T)this);
@@ -294,7 +359,7 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
         Set<State> end = getAcceptStates();
         State nend = createNewState(State.Kind.ACCEPT);
 
-        if (isEmpty()) {
+        if (isSingleState()) {
             addTransition(new Transition(start, nend));
             return nend;
         }
@@ -317,11 +382,6 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
                 .collect(Collectors.toSet());
     }
 
-    private Collection<State> getMatches(State s, char c) {
-        return outgoingEdgesOf(s).stream().filter(e -> e.getLabel().match(c))
-                .map(Transition::getTarget).collect(Collectors.toSet());
-    }
-
 
     private void collapseStates(Predicate<State> p) {
 
@@ -337,89 +397,174 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
     }
 
 
+    /**
+     * Removes all states except the start state that are not reachable from
+     * the start or from which no accept state is reachable.
+     */
     protected void removeUnreachableStates() {
-        if(!hasAcceptStates()) {
-            Set<State> toRm = vertexSet().stream().filter(x -> !x.equals
-                    (start)).collect(Collectors.toSet());
-            removeAllVertices(toRm);
-        } else {
-            AutomatonSlicerForward fw = new AutomatonSlicerForward(this);
-            AutomatonSlicerBackward bw = new AutomatonSlicerBackward(this);
-            Collection<State> chop = fw.slice(this.start);
-            chop.retainAll(bw.slice(this.getAcceptStates()));
-            Set<State> vertices = new HashSet<>(vertexSet());
-            vertices.removeAll(chop);
-            removeAllVertices(vertices);
+        State [] states = vertexSet().toArray(new State[0]);
+        boolean [] live = AbstractMinimizer.getLiveStates(DenseNfa.of(this,
+                states));
+
+        List<State> toRm = new ArrayList<>();
+        for (int i = 0; i < states.length; i++) {
+            if (!live[i] && states[i] != start)
+                toRm.add(states[i]);
         }
+        removeAllVertices(toRm);
     }
 
+    /**
+     * Splits the labeled transitions of every state such that any two of
+     * their labels are either equal or disjoint.
+     */
     public void eliminateRedundantTransitions() {
-        for(State s : vertexSet()) {
-            checkForRedundatTransitions(s);
+        for(State s : new ArrayList<>(vertexSet())) {
+            partitionTransitions(s);
         }
     }
 
+    /**
+     * Sweeps over the sorted bounds of the labels leaving s. The transitions
+     * whose labels cover the current elementary interval are kept in an
+     * active list, and a count per target tells when the set of targets
+     * changes; adjacent intervals with the same targets are joined, and one
+     * transition per target is emitted for each of the resulting disjoint
+     * ranges. States whose labels are already equal or disjoint are left
+     * as they are.
+     */
+    private void partitionTransitions(State s) {
 
-    private Tuple<Set<TransitionLabel>, Set<TransitionLabel>> splitLabels
-            (TransitionLabel t1, TransitionLabel t2) {
+        List<Transition> out = outgoingEdgesOf(s).stream().filter(t -> !t
+                .isEpsilon()).collect(Collectors.toList());
 
-        Set<TransitionLabel> fst = new HashSet<>();
-        Set<TransitionLabel> snd = new HashSet<>();
+        int k = out.size();
 
-        TransitionLabel isect = t1.isect(t2);
+        if (k < 2)
+            return;
 
-        fst.addAll(t1.minus(isect));
-        snd.addAll(t2.minus(isect));
-        fst.add(isect);
-        snd.add(isect);
+        char [] min = new char[k];
+        char [] max = new char[k];
+        long [] order = new long[k];
+        int [] pts = new int[2 * k];
+
+        // dense ids of the targets
+        Map<State, Integer> ids = new HashMap<>();
+        State [] targets = new State[k];
+        int [] tid = new int[k];
+
+        for (int i = 0; i < k; i++) {
+            Transition t = out.get(i);
+            CharRange r = (CharRange) t.getLabel();
+            min[i] = r.getMin();
+            max[i] = r.getMax();
+            order[i] = (long) min[i] << 32 | i;
+            pts[2 * i] = min[i];
+            pts[2 * i + 1] = max[i] + 1;
+
+            Integer id = ids.get(t.getTarget());
+            if (id == null) {
+                id = ids.size();
+                ids.put(t.getTarget(), id);
+                targets[id] = t.getTarget();
+            }
+            tid[i] = id;
+        }
 
-        //LOGGER.debug("new split {} {}", fst, snd);
+        Arrays.sort(order);
 
-        return new Tuple<>(fst,snd);
-    }
+        if (isPartitioned(order, min, max))
+            return;
 
-    private void checkForRedundatTransitions(State s) {
+        Arrays.sort(pts);
 
-        Set<Transition> toAdd = new HashSet<>();
-        Set<Transition> toRm = new HashSet<>();
-        Set<Transition> sorted = getSortedTransitions(s);
+        // number of active transitions per target
+        int [] cnt = new int[ids.size()];
+        int [] active = new int[k];
+        int na = 0;
+        int next = 0;
 
-        Transition prev = null;
+        Set<Transition> toAdd = new LinkedHashSet<>();
 
-        for(Transition t : sorted) {
+        Set<State> ptargets = Collections.emptySet();
+        int plo = 0;
+        int phi = -1;
 
-            if(prev == null)
-                prev = t;
+        for (int i = 0; i + 1 < pts.length; i++) {
 
-            if(prev.getLabel().isect(t.getLabel()) != null && !prev.getLabel().equals(t.getLabel())) {
+            int lo = pts[i];
 
+            if (pts[i + 1] == lo)
+                continue;
 
-                Tuple<Set<TransitionLabel>, Set<TransitionLabel>>
-                lbls = splitLabels(prev.getLabel(), t.getLabel());
+            int hi = pts[i + 1] - 1;
+            boolean changed = false;
+
+            // drop transitions ending before lo, add those starting at lo
+            int w = 0;
+            for (int a = 0; a < na; a++) {
+                int t = active[a];
+                if (max[t] >= lo)
+                    active[w++] = t;
+                else if (--cnt[tid[t]] == 0)
+                    changed = true;
+            }
+            na = w;
+            while (next < k && (int) (order[next] >>> 32) == lo) {
+                int t = (int) order[next++];
+                active[na++] = t;
+                if (cnt[tid[t]]++ == 0)
+                    changed = true;
+            }
 
-                for(TransitionLabel l : lbls.getKey()) {
-                    toAdd.add(new Transition(prev.getSource(), prev.getTarget(),
-                        l.clone()));
-                }
+            if (!changed && phi + 1 == lo) {
+                phi = hi;
+                continue;
+            }
 
+            addPartition(s, ptargets, plo, phi, toAdd);
 
-                for(TransitionLabel l : lbls.getVal()) {
-                    toAdd.add(new Transition(t.getSource(), t.getTarget(),
-                            l.clone()));
-                }
+            ptargets = new LinkedHashSet<>();
+            for (int a = 0; a < na; a++)
+                ptargets.add(targets[tid[active[a]]]);
+            plo = lo;
+            phi = hi;
+        }
 
-                toRm.add(prev);
-                toRm.add(t);
-                //LOGGER.debug("rm {}", prev);
+        addPartition(s, ptargets, plo, phi, toAdd);
 
+        removeAllEdges(out);
+        addTransitions(toAdd);
+    }
 
+    /**
+     * @param order indices of the labels packed with their lower bounds, in
+     * ascending order
+     * @return true if any two labels are either equal or disjoint
+     */
+    private static boolean isPartitioned(long [] order, char [] min, char []
+            max) {
+        int gmin = -1;
+        int gmax = -1;
+        for (long o : order) {
+            int t = (int) o;
+            if (min[t] == gmin) {
+                if (max[t] != gmax)
+                    return false;
+            } else if (min[t] <= gmax) {
+                return false;
             } else {
-                prev = t;
+                gmin = min[t];
+                gmax = max[t];
             }
         }
+        return true;
+    }
 
-        removeAllEdges(toRm);
-        addTransitions(toAdd);
+    private static void addPartition(State s, Set<State> targets, int lo,
+                                     int hi, Set<Transition> toAdd) {
+        for (State t : targets)
+            toAdd.add(new Transition(s, t, (char) lo, (char) hi));
     }
 
 
@@ -441,276 +586,67 @@ public abstract class AbstractAutomaton<T extends AbstractAutomaton>
     }
 
 
+    /**
+     * Replaces this automaton by the minimal DFA of its language; states
+     * that are unreachable or cannot reach an accept state are dropped.
+     */
     public void minimize() {
-
-        // delete unreachable states
-        //Automat a = new Automat(this);
-        //a.collapseStates(s -> !s.isAccept() && outDegreeOf(s) == 0);
-        //a.collapseStates(s -> s.isAccept() && outDegreeOf(s) == 0);
-
-        removeUnreachableStates();
-        Map<Set<State>, Boolean> inequality = new HashMap<>();
-
-        for(State v1 : vertexSet()){
-            for(State v2: vertexSet()){
-
-                if(v1.equals(v2))
-                    continue;
-
-                Set<State> s = new HashSet<>();
-                s.add(v1);
-                s.add(v2);
-
-                boolean ineq = false;
-
-                if((v1.isAccept() && !v2.isAccept()) ||
-                        (v2.isAccept() && !v1.isAccept()))
-                                ineq = true;
-
-                if(!inequality.containsKey(s))
-                    inequality.put(s, ineq);
-            }
-        }
-
-        //LOGGER.debug(inequality.toString());
-
-        boolean change;
-
-        do {
-            change = false;
-
-            Set<Set<State>> ineq = new HashSet<>();
-
-            for (Map.Entry<Set<State>, Boolean> e : inequality.entrySet()) {
-
-                //LOGGER.debug("CALL with {}", e.getKey());
-                if(e.getValue() == false && statesNotEqual(e.getKey(),
-                        inequality)) {
-                    //LOGGER.debug("{} not equal", e.getKey());
-                    ineq.add(e.getKey());
-                }
-            }
-
-            for(Set<State> i : ineq) {
-                if(inequality.get(i) == false) {
-                    //LOGGER.debug("set {} to true", i);
-                    inequality.put(i, true);
-                    change = true;
-                }
-            }
-
-        } while (change);
-
-
-        Set<Set<State>> tomerge = inequality.entrySet().stream()
-                .filter(e -> e.getValue() == false).
-                        map(e -> e.getKey())
-                .collect(Collectors.toSet());
-
-        //LOGGER.debug("tomerge {}", tomerge);
-
-
-
-        Map<State, Set<State>> group = new HashMap<>();
-
-        for(Set<State> m : tomerge) {
-
-            State [] s = m.toArray(new State [m.size()]);
-
-            State fst = s[0];
-            State snd = s[1];
-
-            if(!group.containsKey(fst)){
-                group.put(fst, new HashSet<>());
-            }
-
-            if(!group.containsKey(snd)){
-                group.put(snd, new HashSet<>());
-            }
-
-            group.get(fst).add(snd);
-            group.get(fst).add(fst);
-            group.get(snd).add(fst);
-            group.get(snd).add(snd);
-        }
-
-        Set<Set<State>> merged = new HashSet<>();
-        merged.addAll(group.values());
-
-
-        for(Set<State> m : merged) {
-            merge(m);
-        }
-
-    }
-
-
-    private boolean statesNotEqual(Collection<State> states, Map<Set<State>,
-            Boolean>  emap) {
-        assert states.size() == 2;
-
-        State [] stat = states.toArray(new State[states.size()]);
-
-        return statesNotEqual(stat[0],stat[1], emap);
-    }
-
-    private boolean statesNotEqual(State a, State b, Map<Set<State>,
-            Boolean> emap) {
-
-        LOGGER.debug("{} vs {}", a, b);
-
-        if(outDegreeOf(a) != outDegreeOf(b))
-            return true;
-
-        if(isConnectedToAcceptState(a) && ! isConnectedToAcceptState(b))
-            return true;
-
-        if(isConnectedToAcceptState(b) && ! isConnectedToAcceptState(a))
-            return true;
-
-        Set<Transition> ta = outgoingEdgesOf(a);
-
-        if(!ta.containsAll(outgoingEdgesOf(b))) {
-            return true;
-        }
-
-        Set<State> outas = getConnectedOutStates(a);
-        Set<State> outbs = getConnectedOutStates(a);
-
-        for(State outa : outas) {
-            for (State outb : outbs) {
-                Set<State> t = new HashSet<>();
-                t.add(outa);
-                t.add(outb);
-                if(emap.containsKey(t) && emap.get(t) == true)
-                    return true;
-            }
-        }
-
-        LOGGER.debug("HO ");
-        return false;
-    }
-
-
-
-    private boolean isConnectedToAcceptState(State s) {
-        return getConnectedOutStates(s).stream().anyMatch(x -> x.isAccept());
-    }
-
-
-    protected Map<TransitionLabel, Set<State>> getCombinedTransitionMap
-            (Collection<State> stats, Predicate<Transition> filter) {
-
-        LOGGER.debug("get combined transition map for {}", stats);
-        Map<TransitionLabel, Set<State>> m = new HashMap<>();
-
-        for (State s : stats) {
-            Map<TransitionLabel, Set<State>> ret = getTransitionMap(s, filter);
-            for(Map.Entry<TransitionLabel, Set<State>> e : ret.entrySet()) {
-                if (!m.containsKey(e.getKey())) {
-                    m.put(e.getKey(), new HashSet<>());
-                }
-                m.get(e.getKey()).addAll(e.getValue());
-            }
-        }
-
-        return m;
-    }
-
-    private Map<TransitionLabel, Set<State>> getTransitionMap(State s,
-                                                              Predicate<Transition> filter) {
-
-        Map<TransitionLabel, Set<State>> m = new HashMap<>();
-
-
-        for (Transition t : outgoingEdgesOf(s).stream().filter(filter)
-                .collect(Collectors.toSet())) {
-
-            //LOGGER.debug("Trans {}", t);
-
-            if (!m.containsKey(t.getLabel())) {
-                m.put(t.getLabel(), new HashSet<>());
-            }
-
-            m.get(t.getLabel()).add(t.getTarget());
-        }
-
-        //LOGGER.debug("MM {}", m);
-
-        return m;
-    }
-
-
-
-    private void _computeEpsilonClosureForState(State s, Map<State, Set<State>> emap) {
-
-        if (!emap.containsKey(s))
-            emap.put(s, new HashSet<>());
-        else
-            return;
-
-        emap.get(s).add(s);
-
-        Set<Transition> epsilons = outgoingEdgesOf(s).stream().filter(e -> e
-                .isEpsilon()).collect
-                (Collectors.toSet());
-
-        for (Transition epsilon : epsilons) {
-            _computeEpsilonClosureForState(epsilon.getTarget(), emap);
-            emap.get(s).addAll(emap.get(epsilon.getTarget()));
-        }
+        dispatch.getMinimizer().minimize(this);
+        canonical = true;
     }
 
 
-    private Set<State> getEpsilonClosure(State s) {
-        Map<State, Set<State>> eclosure = new HashMap<>();
-        _computeEpsilonClosureForState(s, eclosure);
-        return eclosure.get(s);
-    }
-
+    /**
+     * @return for every state the set of states reachable from it via
+     * epsilon transitions, including the state itself
+     * @see DenseNfa#getClosures()
+     */
     protected Map<State, Set<State>> getEpsilonClosure() {
 
-        Map<State, Set<State>> eclosure = new HashMap<>();
+        State [] states = vertexSet().toArray(new State[0]);
+        int [][] closures = DenseNfa.of(this, states).getClosures();
 
-        for (State s : vertexSet()) {
-            _computeEpsilonClosureForState(s, eclosure);
+        Map<State, Set<State>> eclosure = new HashMap<>();
+        Map<int [], Set<State>> shared = new IdentityHashMap<>();
+
+        for (int i = 0; i < states.length; i++) {
+            Set<State> cl = shared.get(closures[i]);
+            if (cl == null) {
+                cl = new HashSet<>();
+                for (int s : closures[i])
+                    cl.add(states[s]);
+                shared.put(closures[i], cl);
+            }
+            eclosure.put(states[i], cl);
         }
 
         return eclosure;
     }
 
 
-
-
+    /**
+     * Matches s by NFA simulation on a snapshot that is taken per call,
+     * since states can be modified in place, e.g. by
+     * {@link State#setKind}. To match repeatedly, keep a matcher from
+     * {@link NfaMatcher#of} or {@link #compile()} instead.
+     */
     public boolean match(String s) {
-
         assert start != null;
-        LinkedList<Tuple<State, Integer>> worklist = new
-                LinkedList<>();
-
-        worklist.add(new Tuple(start, 0));
-
-        int ept = s.length();
-
-        while (!worklist.isEmpty()) {
-
-            Tuple<State, Integer> t = worklist.pop();
-
-            if (t.getKey().isAccept() && t.getVal() == ept)
-                return true;
-
-            if (t.getVal() >= ept)
-                continue;
+        return NfaMatcher.of(this).matches(s);
+    }
 
-            Collection<State> m = getMatches(t.getKey(), s.charAt(t.getVal()));
 
-            for (State nxt : m) {
-                worklist.add(new Tuple(nxt, t.val + 1));
-            }
+    public CompiledMatcher compile() {
+        return CompiledMatcher.compile(this);
+    }
 
-        }
 
-        return false;
+    /**
+     * @return an immutable compact copy of this automaton
+     * @see FrozenAutomaton#toAutomaton()
+     */
+    public FrozenAutomaton freeze() {
+        return FrozenAutomaton.of(this);
     }
 
 
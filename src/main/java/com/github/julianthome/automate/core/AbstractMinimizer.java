@@ -0,0 +1,268 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.HashSet;
+
+/**
+ * Base for minimizers that compute the state equivalence of a DFA. The
+ * automaton is determinized if necessary and trimmed; a subclass assigns
+ * every live state to a block of equivalent states, and the quotient
+ * automaton is built from one representative per block.
+ */
+public abstract class AbstractMinimizer implements Minimizer {
+
+    @Override
+    public void minimize(AbstractAutomaton<?> a) {
+        DenseNfa nfa = DenseNfa.of(a);
+        minimize(a, isDeterministic(nfa) ? nfa : Determinizer.determinize
+                (nfa, startMeter()));
+    }
+
+    /**
+     * @return a meter for the budget set with
+     * {@link BasicOperations#setBudget(Budget)}
+     */
+    static Budget.Meter startMeter() {
+        return BasicOperations.getInstance().getBudget().start("minimize");
+    }
+
+    /**
+     * Replaces the content of a by the minimal DFA equivalent to dfa.
+     */
+    protected void minimize(AbstractAutomaton<?> a, DenseNfa dfa) {
+
+        boolean [] live = getLiveStates(dfa);
+        int init = dfa.getInitial()[0];
+
+        a.removeAllVertices(new HashSet<>(a.vertexSet()));
+
+        if (!live[init]) {
+            a.start = a.createNewState(State.Kind.NORMAL);
+            a.addVertex(a.start);
+            return;
+        }
+
+        int [] block = new int[dfa.size()];
+        int nblocks = partition(dfa, live, block);
+
+        State [] states = new State[nblocks];
+        int [] rep = new int[nblocks];
+
+        for (int s = 0; s < dfa.size(); s++) {
+            if (!live[s] || states[block[s]] != null)
+                continue;
+            rep[block[s]] = s;
+            states[block[s]] = a.createNewState(dfa.isAccept(s) ? State.Kind
+                    .ACCEPT : State.Kind.NORMAL);
+            a.addVertex(states[block[s]]);
+        }
+
+        a.start = states[block[init]];
+
+        for (int b = 0; b < nblocks; b++) {
+
+            if (states[b] == null)
+                continue;
+
+            int s = rep[b];
+
+            // merge adjacent ranges that lead to the same block
+            int ptar = -1;
+            char plo = 0;
+            char phi = 0;
+
+            for (int t = dfa.getFirstTransition(s); t < dfa
+                    .getLastTransition(s); t++) {
+
+                if (!live[dfa.getTarget(t)])
+                    continue;
+
+                int tar = block[dfa.getTarget(t)];
+
+                if (tar == ptar && phi + 1 == dfa.getMin(t)) {
+                    phi = dfa.getMax(t);
+                    continue;
+                }
+
+                if (ptar >= 0)
+                    a.addTransition(new Transition(states[b], states[ptar],
+                            plo, phi));
+
+                ptar = tar;
+                plo = dfa.getMin(t);
+                phi = dfa.getMax(t);
+            }
+
+            if (ptar >= 0)
+                a.addTransition(new Transition(states[b], states[ptar], plo,
+                        phi));
+        }
+    }
+
+    /**
+     * Assigns equivalent live states of a DFA to the same block.
+     *
+     * @param dfa deterministic snapshot whose initial state is live
+     * @param live states that are reachable and co-reachable
+     * @param block receives the block of every live state
+     * @return the number of blocks; block ids are below this number
+     */
+    protected abstract int partition(DenseNfa dfa, boolean [] live, int []
+            block);
+
+    protected static boolean isDeterministic(DenseNfa nfa) {
+
+        if (nfa.hasEpsilons() || nfa.getInitial().length != 1)
+            return false;
+
+        for (int s = 0; s < nfa.size(); s++) {
+            for (int k = nfa.getFirstTransition(s) + 1; k < nfa
+                    .getLastTransition(s); k++) {
+                if (nfa.getMin(k) <= nfa.getMax(k - 1))
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the states that are reachable from an initial state and from
+     * which an accept state is reachable
+     */
+    protected static boolean [] getLiveStates(DenseNfa nfa) {
+        boolean [] fwd = reach(nfa, nfa.getInitial());
+        DenseNfa rev = nfa.reverse();
+        boolean [] bwd = reach(rev, rev.getInitial());
+
+        boolean [] live = new boolean[nfa.size()];
+        for (int s = 0; s < live.length; s++)
+            live[s] = fwd[s] && bwd[s];
+        return live;
+    }
+
+    /**
+     * @return true if no cycle passes through live states only
+     */
+    protected static boolean isAcyclic(DenseNfa dfa, boolean [] live) {
+        return getHeights(dfa, live) != null;
+    }
+
+    /**
+     * Computes for every live state the length of the longest path to a
+     * state without live successors.
+     *
+     * @return the heights, or null if the live part has a cycle
+     */
+    static int [] getHeights(DenseNfa dfa, boolean [] live) {
+
+        int n = dfa.size();
+        int [] height = new int[n];
+
+        // 0 = unvisited, 1 = on the stack, 2 = done
+        byte [] color = new byte[n];
+        int [] stack = new int[n];
+        int [] next = new int[n];
+
+        for (int r = 0; r < n; r++) {
+
+            if (!live[r] || color[r] != 0)
+                continue;
+
+            int sp = 0;
+            stack[sp++] = r;
+            color[r] = 1;
+            next[r] = dfa.getFirstTransition(r);
+
+            while (sp > 0) {
+                int s = stack[sp - 1];
+
+                if (next[s] < dfa.getLastTransition(s)) {
+                    int t = dfa.getTarget(next[s]++);
+                    if (!live[t])
+                        continue;
+                    if (color[t] == 1)
+                        return null;
+                    if (color[t] == 0) {
+                        color[t] = 1;
+                        next[t] = dfa.getFirstTransition(t);
+                        stack[sp++] = t;
+                    }
+                    continue;
+                }
+
+                for (int k = dfa.getFirstTransition(s); k < dfa
+                        .getLastTransition(s); k++) {
+                    int t = dfa.getTarget(k);
+                    if (live[t])
+                        height[s] = Math.max(height[s], height[t] + 1);
+                }
+
+                color[s] = 2;
+                sp--;
+            }
+        }
+
+        return height;
+    }
+
+    private static boolean [] reach(DenseNfa nfa, int [] from) {
+        boolean [] seen = new boolean[nfa.size()];
+        int [] stack = new int[nfa.size()];
+        int sp = 0;
+
+        for (int s : from) {
+            if (!seen[s]) {
+                seen[s] = true;
+                stack[sp++] = s;
+            }
+        }
+
+        while (sp > 0) {
+            int s = stack[--sp];
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+                int t = nfa.getTarget(k);
+                if (!seen[t]) {
+                    seen[t] = true;
+                    stack[sp++] = t;
+                }
+            }
+            for (int k = nfa.getFirstEpsilon(s); k < nfa.getLastEpsilon(s);
+                 k++) {
+                int t = nfa.getEpsilonTarget(k);
+                if (!seen[t]) {
+                    seen[t] = true;
+                    stack[sp++] = t;
+                }
+            }
+        }
+
+        return seen;
+    }
+}
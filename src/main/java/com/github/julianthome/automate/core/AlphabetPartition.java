@@ -0,0 +1,177 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.Arrays;
+
+/**
+ * Partition of the character alphabet into the coarsest set of disjoint
+ * intervals (classes) such that no transition label of the given automata
+ * crosses a class boundary. Two characters of the same class hence behave
+ * identically in all of these automata. Classes are numbered in ascending
+ * order of their characters; a character is mapped to its class by a
+ * two-level table over blocks of 256 characters. Only blocks that contain
+ * a class boundary are filled individually; consecutive blocks that lie
+ * within one class share a single table, so construction takes time in the
+ * number of boundaries rather than in the size of the alphabet.
+ * Instances are immutable.
+ */
+public final class AlphabetPartition {
+
+    private static final int BLOCK = 256;
+
+    // class i covers the characters bounds[i] to bounds[i+1]-1
+    private final int [] bounds;
+    private final char [][] blocks;
+
+    private AlphabetPartition(int [] bounds) {
+        this.bounds = bounds;
+        this.blocks = new char[(Character.MAX_VALUE + 1) / BLOCK][];
+
+        // block shared by the blocks that lie within class ucls
+        char [] uniform = null;
+        int ucls = -1;
+        int cls = 0;
+
+        for (int b = 0; b < blocks.length; b++) {
+
+            int lo = b * BLOCK;
+            int hi = lo + BLOCK;
+
+            while (bounds[cls + 1] <= lo)
+                cls++;
+
+            if (bounds[cls + 1] >= hi) {
+                if (cls != ucls) {
+                    uniform = new char[BLOCK];
+                    Arrays.fill(uniform, (char) cls);
+                    ucls = cls;
+                }
+                blocks[b] = uniform;
+                continue;
+            }
+
+            char [] block = new char[BLOCK];
+            for (int c = lo; c < hi; ) {
+                int end = Math.min(bounds[cls + 1], hi);
+                Arrays.fill(block, c - lo, end - lo, (char) cls);
+                c = end;
+                if (c == bounds[cls + 1])
+                    cls++;
+            }
+            blocks[b] = block;
+        }
+    }
+
+    /**
+     * @return the partition induced by the transition labels of all given
+     * snapshots
+     */
+    public static AlphabetPartition of(DenseNfa ... nfas) {
+
+        int cnt = 1;
+        for (DenseNfa nfa : nfas)
+            cnt += 2 * nfa.getTransitionCount();
+
+        int [] pts = new int[cnt + 1];
+        int p = 0;
+        pts[p++] = Character.MIN_VALUE;
+
+        for (DenseNfa nfa : nfas) {
+            for (int k = 0; k < nfa.getTransitionCount(); k++) {
+                pts[p++] = nfa.getMin(k);
+                pts[p++] = nfa.getMax(k) + 1;
+            }
+        }
+
+        return of(pts, p);
+    }
+
+    public static AlphabetPartition of(AbstractAutomaton<?> ... automata) {
+
+        int cnt = 1;
+        for (AbstractAutomaton<?> a : automata)
+            cnt += 2 * a.edgeSet().size();
+
+        int [] pts = new int[cnt + 1];
+        int p = 0;
+        pts[p++] = Character.MIN_VALUE;
+
+        for (AbstractAutomaton<?> a : automata) {
+            for (Transition t : a.edgeSet()) {
+                if (t.isEpsilon())
+                    continue;
+                CharRange r = (CharRange) t.getLabel();
+                pts[p++] = r.getMin();
+                pts[p++] = r.getMax() + 1;
+            }
+        }
+
+        return of(pts, p);
+    }
+
+    private static AlphabetPartition of(int [] pts, int p) {
+
+        Arrays.sort(pts, 0, p);
+
+        int [] bounds = new int[p + 1];
+        int n = 0;
+
+        for (int i = 0; i < p; i++) {
+            if (pts[i] <= Character.MAX_VALUE && (n == 0 || bounds[n - 1]
+                    != pts[i]))
+                bounds[n++] = pts[i];
+        }
+
+        // sentinel behind the last class
+        bounds[n++] = Character.MAX_VALUE + 1;
+
+        return new AlphabetPartition(Arrays.copyOf(bounds, n));
+    }
+
+    public int getClassCount() {
+        return bounds.length - 1;
+    }
+
+    public int classOf(char c) {
+        return blocks[c >>> 8][c & 0xFF];
+    }
+
+    /**
+     * @return the smallest character of the given class
+     */
+    public char getMin(int cls) {
+        return (char) bounds[cls];
+    }
+
+    /**
+     * @return the largest character of the given class
+     */
+    public char getMax(int cls) {
+        return (char) (bounds[cls + 1] - 1);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import com.github.julianthome.automate.exception.BudgetExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Picks a minimization strategy per automaton. Nondeterministic automata
+ * are minimized by double reversal as long as the DFA of the reversed
+ * language stays small compared to the input; otherwise they are
+ * determinized first. DFAs are minimized with {@link RevuzMinimizer} if
+ * they are acyclic, with {@link HopcroftMinimizer} if their completed
+ * transition table is small and with {@link ValmariMinimizer} otherwise.
+ */
+public class AutoMinimizer extends AbstractMinimizer {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(AutoMinimizer.class);
+
+    // largest completed transition table handed to Hopcroft
+    private static final long MAX_TABLE = 1 << 22;
+
+    private final BrzozowskiMinimizer brzozowski = new BrzozowskiMinimizer();
+    private final RevuzMinimizer revuz = new RevuzMinimizer();
+    private final HopcroftMinimizer hopcroft = new HopcroftMinimizer();
+    private final ValmariMinimizer valmari = new ValmariMinimizer();
+
+    @Override
+    public void minimize(AbstractAutomaton<?> a) {
+
+        DenseNfa nfa = DenseNfa.of(a);
+
+        if (isDeterministic(nfa)) {
+            minimize(a, nfa);
+            return;
+        }
+
+        Budget.Meter meter = startMeter();
+        int limit = 2 * nfa.size() + 16;
+
+        try {
+            DenseNfa rev = Determinizer.determinize(nfa.reverse(), limit,
+                    meter);
+            if (rev != null && brzozowski.minimize(a, rev, limit, meter))
+                return;
+        } catch (BudgetExceededException e) {
+            // the DFA of the reversed language may be larger than the
+            // forward one, which decides whether the budget suffices
+            LOGGER.debug("reversal exceeds budget: {}", e.getMessage());
+        }
+
+        minimize(a, Determinizer.determinize(nfa, meter));
+    }
+
+    @Override
+    protected int partition(DenseNfa dfa, boolean [] live, int [] block) {
+
+        int n = 0;
+        for (boolean l : live)
+            n += l ? 1 : 0;
+
+        if (isAcyclic(dfa, live))
+            return revuz.partition(dfa, live, block);
+
+        long k = AlphabetPartition.of(dfa).getClassCount();
+
+        if ((n + 1) * k <= MAX_TABLE)
+            return hopcroft.partition(dfa, live, block);
+
+        return valmari.partition(dfa, live, block);
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an automaton with in-place operations. The operations of
+ * {@link BasicOperations} return a new, canonicalized automaton per call;
+ * here, operands are grafted into a single working automaton and the
+ * result is canonicalized once by {@link #build()}. The accept states are
+ * tracked explicitly and the start state never has incoming transitions,
+ * so every operation costs time in the size of its operand only.
+ *
+ * Starts with the empty language.
+ */
+public class AutomatonBuilder<T extends AbstractAutomaton> {
+
+    private final T a;
+
+    private List<State> accepts = new ArrayList<>();
+
+    private boolean done = false;
+
+    public AutomatonBuilder(AutomatonProvider<T> provider) {
+        this.a = provider.getNewAutomaton();
+    }
+
+    /**
+     * Adds the language of other.
+     */
+    public AutomatonBuilder<T> unionWith(T other) {
+        check();
+        State s = graft(other);
+        a.addTransition(new Transition(a.start, s));
+        return this;
+    }
+
+    /**
+     * Adds a single string.
+     */
+    public AutomatonBuilder<T> addString(CharSequence s) {
+        check();
+
+        State cur = a.start;
+        for (int i = 0; i < s.length(); i++) {
+            State nxt = a.createNewState(State.Kind.NORMAL);
+            a.addTransition(new Transition(cur, nxt, s.charAt(i)));
+            cur = nxt;
+        }
+
+        if (!cur.isAccept()) {
+            cur.setKind(State.Kind.ACCEPT);
+            accepts.add(cur);
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the language L by L followed by the language of other.
+     */
+    public AutomatonBuilder<T> concatWith(T other) {
+        check();
+
+        // nothing follows the empty language
+        if (accepts.isEmpty())
+            return this;
+
+        List<State> prev = accepts;
+        accepts = new ArrayList<>();
+        State s = graft(other);
+
+        for (State p : prev) {
+            p.setKind(State.Kind.NORMAL);
+            a.addTransition(new Transition(p, s));
+        }
+        return this;
+    }
+
+    public AutomatonBuilder<T> appendInPlace(char c) {
+        return appendInPlace(c, c);
+    }
+
+    /**
+     * Replaces the language L by L followed by a character between min and
+     * max.
+     */
+    public AutomatonBuilder<T> appendInPlace(char min, char max) {
+        check();
+
+        if (accepts.isEmpty())
+            return this;
+
+        State end = a.createNewState(State.Kind.ACCEPT);
+        CharRange r = CharRange.of(min, max);
+
+        for (State p : accepts) {
+            p.setKind(State.Kind.NORMAL);
+            a.addTransition(new Transition(p, end, r));
+        }
+
+        accepts = new ArrayList<>();
+        accepts.add(end);
+        return this;
+    }
+
+    /**
+     * Replaces the language L by its Kleene closure.
+     */
+    public AutomatonBuilder<T> starInPlace() {
+        check();
+
+        // the old start becomes the loop head; a new start keeps the
+        // invariant that nothing leads back to the start
+        State head = a.start;
+        for (State p : accepts)
+            a.addTransition(new Transition(p, head));
+
+        State start = a.createNewState(State.Kind.ACCEPT);
+        a.addVertex(start);
+        a.addTransition(new Transition(start, head));
+        a.start = start;
+
+        accepts.add(start);
+        return this;
+    }
+
+    /**
+     * Canonicalizes the working automaton, like the result of any operation
+     * of {@link BasicOperations}, and returns it.
+     *
+     * @throws IllegalStateException if the automaton was built already
+     */
+    @SuppressWarnings("unchecked")
+    public T build() {
+        check();
+        done = true;
+        return (T) a.dispatch.postProcess(a);
+    }
+
+    /**
+     * Grafts a copy of other into the working automaton and adds the copies
+     * of its accept states to the tracked ones.
+     *
+     * @return the copy of the start state of other
+     */
+    private State graft(T other) {
+        AbstractAutomaton<?> o = other;
+        Map<State, State> smap = BasicOperations.graft(a, o);
+        for (Map.Entry<State, State> e : smap.entrySet()) {
+            if (e.getKey().isAccept())
+                accepts.add(e.getValue());
+        }
+        return smap.get(o.start);
+    }
+
+    private void check() {
+        if (done)
+            throw new IllegalStateException("automaton was built already");
+    }
+}
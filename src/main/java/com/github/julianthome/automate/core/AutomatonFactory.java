@@ -30,7 +30,13 @@ import com.github.julianthome.automate.parser.RegexParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
 
 public class AutomatonFactory implements AutomatonProvider<Automaton> {
 
@@ -50,7 +56,7 @@ public class AutomatonFactory implements AutomatonProvider<Automaton> {
     public Automaton getAllAccepting() {
         Automaton all = new Automaton();
         all.start.setKind(State.Kind.ACCEPT);
-        all.addTransition(new Transition(all.start,all.start, CharRange.ANY.clone()));
+        all.addTransition(new Transition(all.start,all.start, CharRange.ANY));
         return all;
     }
 
@@ -58,7 +64,7 @@ public class AutomatonFactory implements AutomatonProvider<Automaton> {
     public Automaton getAnyAccepting() {
         Automaton any = new Automaton();
         State acc = any.createNewState(State.Kind.ACCEPT);
-        any.addTransition(new Transition(any.start, acc, CharRange.ANY.clone()));
+        any.addTransition(new Transition(any.start, acc, CharRange.ANY));
         return any;
     }
 
@@ -92,4 +98,43 @@ public class AutomatonFactory implements AutomatonProvider<Automaton> {
         return null;
     }
 
+    /**
+     * @return a builder that starts with the empty language
+     */
+    public AutomatonBuilder<Automaton> getBuilder() {
+        return new AutomatonBuilder<>(this);
+    }
+
+    /**
+     * Builds the minimal DFA of a word list incrementally, without going
+     * through {@link #getNewAutomaton()} and union per word.
+     *
+     * @param words words in ascending order of {@link String#compareTo}
+     * @return automaton that accepts exactly the given words
+     * @throws IllegalArgumentException if the words are not sorted
+     */
+    public Automaton getDictionaryAutomaton(Iterator<? extends
+            CharSequence> words) {
+        DictionaryBuilder<Automaton> builder = new DictionaryBuilder<>(this);
+        while (words.hasNext())
+            builder.add(words.next());
+        return builder.build();
+    }
+
+    /**
+     * Builds the minimal DFA of a sorted UTF-8 file with one word per line.
+     *
+     * @see #getDictionaryAutomaton(Iterator)
+     */
+    public Automaton getDictionaryAutomaton(Path file) throws IOException {
+        DictionaryBuilder<Automaton> builder = new DictionaryBuilder<>(this);
+        try (BufferedReader r = Files.newBufferedReader(file,
+                StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null)
+                builder.add(line);
+        }
+        return builder.build();
+    }
+
 }
@@ -27,6 +27,7 @@
 package com.github.julianthome.automate.core;
 
 
+import com.github.julianthome.automate.exception.BudgetExceededException;
 import com.github.julianthome.automate.utils.Tuple;
 import org.jgrapht.GraphPath;
 import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
@@ -34,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public class BasicOperations <T extends AbstractAutomaton> {
@@ -42,11 +44,61 @@ public class BasicOperations <T extends AbstractAutomaton> {
 
     private static BasicOperations bop = null;
     private AutomatonProvider<T> provider = null;
+    private Minimizer minimizer = new AutoMinimizer();
+    private boolean deferred = false;
+    private Budget budget = Budget.UNLIMITED;
 
     public void init(AutomatonProvider<T> p){
         provider = p;
     }
 
+    public Minimizer getMinimizer() {
+        return minimizer;
+    }
+
+    /**
+     * Sets the strategy used by {@link AbstractAutomaton#minimize()} and by
+     * all operations to canonicalize their results.
+     */
+    public void setMinimizer(Minimizer minimizer) {
+        this.minimizer = minimizer;
+    }
+
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    /**
+     * In deferred mode, operations only build (nondeterministic) automata
+     * and leave them uncanonicalized; the minimal DFA is computed once when
+     * a query such as {@link AbstractAutomaton#isEmpty()} or
+     * {@link AbstractAutomaton#getShortestString()} needs it. Matching and
+     * compilation work on the NFA directly. This saves a determinization
+     * and minimization per step when long expressions are built up.
+     */
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Bounds every determinization, including those of the minimizers, and
+     * every product construction of {@link #intersect(AbstractAutomaton,
+     * AbstractAutomaton)}. An operation that exceeds the budget throws a
+     * {@link BudgetExceededException}. If the budget has the NFA fallback
+     * enabled, {@link #determinize(AbstractAutomaton)} and the
+     * canonicalization of operation results return the nondeterministic
+     * automaton instead, which is not marked canonical; only operations
+     * that need a DFA, such as {@link #complement(AbstractAutomaton)} and
+     * queries like {@link AbstractAutomaton#isEmpty()}, still throw.
+     */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
     public static BasicOperations getInstance() {
         if(bop == null)
             bop = new BasicOperations();
@@ -57,121 +109,364 @@ public class BasicOperations <T extends AbstractAutomaton> {
     public T union (T first, T snd) {
         T ret = provider.getNewAutomaton();
 
-        Map<State, State> smap1 = new HashMap<>();
-        Map<State, State> smap2 = new HashMap<>();
+        Map<State, State> smap1 = graft(ret, first);
+        Map<State, State> smap2 = graft(ret, snd);
 
-        Set<State> vs = first.vertexSet();
-        for (State s : vs) {
-            if (!smap1.containsKey(s)) {
-                smap1.put(s, ret.createNewState(s.getKind()));
-            }
-        }
+        ret.addTransition(new Transition(ret.start, smap1.get(first.start)));
+        ret.addTransition(new Transition(ret.start, smap2.get(snd.start)));
 
-        Set<State> os = snd.vertexSet();
-        for (State s : os) {
-            if (!smap2.containsKey(s)) {
-                smap2.put(s, ret.createNewState(s.getKind()));
-            }
-        }
+        LOGGER.debug("union");
 
-        Set<Transition> ftrans = first.edgeSet();
+        return postProcess(ret);
+    }
 
-        for (Transition e : ftrans) {
-            Transition tn = new Transition(smap1.get(e.getSource()), smap1.get
-                    (e.getTarget()), e.getLabel().clone());
-            ret.addTransition(tn);
-        }
+    /**
+     * Adds a copy of src to dst. Operands are grafted into the result of an
+     * operation directly, rather than copied first, so every operation
+     * copies each operand once. Labels are immutable and shared.
+     *
+     * @return a map from every state of src to its copy in dst
+     */
+    static Map<State, State> graft(AbstractAutomaton<?> dst,
+                                   AbstractAutomaton<?> src) {
 
-        Set<Transition> ot = snd.edgeSet();
+        Map<State, State> smap = new HashMap<>();
 
-        for (Transition e : ot) {
-            Transition tn = new Transition(smap2.get(e.getSource()), smap2.get
-                    (e.getTarget()), e.getLabel().clone());
-            ret.addTransition(tn);
-        }
+        Set<State> vs = src.vertexSet();
+        for (State s : vs)
+            smap.put(s, dst.createNewState(s.getKind()));
 
+        Set<Transition> es = src.edgeSet();
+        for (Transition t : es)
+            dst.addTransition(new Transition(smap.get(t.getSource()), smap
+                    .get(t.getTarget()), t.getLabel()));
 
-        ret.addTransition(new Transition(ret.start, smap1.get(first.start)));
-        ret.addTransition(new Transition(ret.start, smap2.get(snd.start)));
+        return smap;
+    }
 
-        LOGGER.debug("RETT ");
+    /**
+     * Grafts a copy of pat into dst and connects from to its start.
+     *
+     * @return a new junction state that the accept states of the copy lead
+     * to; the accept states themselves become normal
+     */
+    private State chain(T dst, State from, T pat) {
 
-        LOGGER.debug(ret.toDot());
+        Map<State, State> smap = graft(dst, pat);
+        State junction = dst.createNewState(State.Kind.NORMAL);
 
-        LOGGER.debug("UNION");
-        //return ret;
+        dst.addTransition(new Transition(from, smap.get(pat.start)));
 
-        return postProcess(ret);
+        Set<State> acc = pat.getAcceptStates();
+        for (State s : acc) {
+            State c = smap.get(s);
+            c.setKind(State.Kind.NORMAL);
+            dst.addTransition(new Transition(c, junction));
+        }
+
+        return junction;
     }
 
 
     public T intersect(T fst, T snd) {
 
+        LOGGER.debug("intersect");
 
-        LOGGER.debug("intersect 1");
+        DenseNfa a = DenseNfa.of(fst);
+        DenseNfa b = DenseNfa.of(snd);
 
+        // compare labels as intervals of alphabet classes
+        AlphabetPartition classes = AlphabetPartition.of(a, b);
+        int [][] acls = getClassIntervals(a, classes);
+        int [][] bcls = getClassIntervals(b, classes);
 
-        LOGGER.debug("intersect 2");
+        // product states are numbered in the order of discovery, hence
+        // their ids double as the worklist
+        Product prod = new Product(a, b);
+        prod.getState(a.getInitial()[0], b.getInitial()[0]);
 
+        Budget.Meter meter = budget.start("intersect");
 
-        T ret = provider.getNewAutomaton();
+        for (int cur = 0; cur < prod.size(); cur++) {
 
-        LinkedList<Tuple<State, State>> worklist = new LinkedList<>();
+            meter.check(prod.size(), prod.nfa.getTransitionCount());
 
-        Tuple<State,State> start = new Tuple<>(fst.start, snd.start);
-        Map<Tuple<State,State>, State> smap = new HashMap<>();
-        smap.put(start, ret.getStart());
+            int p = prod.getFirst(cur);
+            int q = prod.getSecond(cur);
 
-        worklist.add(new Tuple<>(fst.start, snd.start));
+            for (int k = a.getFirstEpsilon(p); k < a.getLastEpsilon(p); k++)
+                prod.nfa.addEpsilon(cur, prod.getState(a.getEpsilonTarget
+                        (k), q));
 
-        Set<Tuple<State, State>> visited = new HashSet<>();
+            for (int k = b.getFirstEpsilon(q); k < b.getLastEpsilon(q); k++)
+                prod.nfa.addEpsilon(cur, prod.getState(p, b.getEpsilonTarget
+                        (k)));
 
-        while (!worklist.isEmpty()) {
+            for (int i = a.getFirstTransition(p); i < a.getLastTransition
+                    (p); i++) {
 
-            Tuple<State, State> s = worklist.pop();
+                for (int j = b.getFirstTransition(q); j < b
+                        .getLastTransition(q); j++) {
 
-            if (visited.contains(s)) {
-                continue;
+                    // transitions are sorted by their lower bound
+                    if (bcls[0][j] > acls[1][i])
+                        break;
+
+                    int lo = Math.max(acls[0][i], bcls[0][j]);
+                    int hi = Math.min(acls[1][i], bcls[1][j]);
+
+                    if (lo > hi)
+                        continue;
+
+                    int tar = prod.getState(a.getTarget(i), b.getTarget(j));
+
+                    prod.nfa.addTransition(cur, classes.getMin(lo), classes
+                            .getMax(hi), tar);
+                }
             }
+        }
+
+        meter.check(prod.size(), prod.nfa.getTransitionCount());
+
+        return postProcess(Determinizer.toAutomaton(prod.nfa.build(0),
+                provider));
+    }
 
-            visited.add(s);
+    /**
+     * States of a product automaton. A pair (p,q) is encoded as p * |b| + q
+     * and mapped to a dense id.
+     */
+    private static final class Product {
+
+        final DenseNfa a;
+        final DenseNfa b;
+        final DenseNfa.Builder nfa = new DenseNfa.Builder();
+        private final LongIntMap ids = new LongIntMap();
+        private long [] pairs = new long[16];
+
+        Product(DenseNfa a, DenseNfa b) {
+            this.a = a;
+            this.b = b;
+        }
 
-            Set<Transition> fstt = fst.getSortedTransitions(s.getKey());
-            Set<Transition> sndt = snd.getSortedTransitions(s.getVal());
+        int size() {
+            return nfa.size();
+        }
 
+        int getFirst(int id) {
+            return (int) (pairs[id] / b.size());
+        }
+
+        int getSecond(int id) {
+            return (int) (pairs[id] % b.size());
+        }
+
+        /**
+         * @return the id of (p,q); the state is added if it is new
+         */
+        int getState(int p, int q) {
+            long pq = p * (long) b.size() + q;
+            int id = ids.get(pq);
+
+            if (id < 0) {
+                id = nfa.addState(a.isAccept(p) && b.isAccept(q));
+                ids.put(pq, id);
+                if (id == pairs.length)
+                    pairs = Arrays.copyOf(pairs, 2 * id);
+                pairs[id] = pq;
+            }
 
-            for (Transition tfst : fstt) {
+            return id;
+        }
+    }
 
-                for (Transition tsnd : sndt) {
+    /**
+     * @return the first and the last alphabet class of every transition
+     */
+    private static int [][] getClassIntervals(DenseNfa nfa,
+                                              AlphabetPartition classes) {
+        int [][] ret = new int[2][nfa.getTransitionCount()];
+        for (int k = 0; k < nfa.getTransitionCount(); k++) {
+            ret[0][k] = classes.classOf(nfa.getMin(k));
+            ret[1][k] = classes.classOf(nfa.getMax(k));
+        }
+        return ret;
+    }
 
-                    Tuple<State,State> target = new Tuple(tfst.getTarget(), tsnd
-                            .getTarget());
+    /**
+     * @return true if the languages of fst and snd are disjoint
+     * @see #findIntersectionWitness(AbstractAutomaton, AbstractAutomaton)
+     */
+    public boolean isEmptyIntersection(T fst, T snd) {
+        return findIntersectionWitness(fst, snd) == null;
+    }
 
-                    TransitionLabel lbl = tfst.getLabel().isect(tsnd.getLabel());
+    /**
+     * Explores the product of fst and snd on the fly and stops at the first
+     * pair of accept states; neither the product automaton nor a DFA is
+     * built.
+     *
+     * @return a shortest string accepted by both automata, or null if there
+     * is none
+     */
+    public String findIntersectionWitness(T fst, T snd) {
+
+        LOGGER.debug("intersection witness");
+
+        DenseNfa a = DenseNfa.of(fst);
+        DenseNfa b = DenseNfa.of(snd);
+
+        long nb = b.size();
+        ProductSearch search = new ProductSearch();
+
+        search.addLast(search.visit(a.getInitial()[0] * nb + b.getInitial()
+                [0], -1, -1, 0));
+
+        // epsilons cost nothing and are put in front of the queue, so pairs
+        // leave it in the order of their distance
+        while (search.hasNext()) {
+
+            int id = search.next();
+            long pq = search.pairs[id];
+            int p = (int) (pq / nb);
+            int q = (int) (pq % nb);
+            int d = search.dist[id];
+
+            if (a.isAccept(p) && b.isAccept(q))
+                return search.getString(id);
+
+            for (int k = a.getFirstEpsilon(p); k < a.getLastEpsilon(p); k++) {
+                int sid = search.visit(a.getEpsilonTarget(k) * nb + q, id,
+                        -1, d);
+                if (sid >= 0)
+                    search.addFirst(sid);
+            }
 
-                    LOGGER.debug("isect {}", lbl);
+            for (int k = b.getFirstEpsilon(q); k < b.getLastEpsilon(q); k++) {
+                int sid = search.visit(p * nb + b.getEpsilonTarget(k), id,
+                        -1, d);
+                if (sid >= 0)
+                    search.addFirst(sid);
+            }
 
-                    if (lbl != null) {
+            for (int i = a.getFirstTransition(p); i < a.getLastTransition
+                    (p); i++) {
 
-                        State.Kind kind  = tfst.getTarget().isAccept() &&
-                                tsnd.getTarget().isAccept() ?
-                                State.Kind.ACCEPT : State.Kind.NORMAL;
+                for (int j = b.getFirstTransition(q); j < b
+                        .getLastTransition(q); j++) {
 
-                        if (!smap.containsKey(target))
-                            smap.put(target, ret.createNewState(kind));
+                    // transitions are sorted by their lower bound
+                    if (b.getMin(j) > a.getMax(i))
+                        break;
 
+                    char lo = (char) Math.max(a.getMin(i), b.getMin(j));
 
-                        ret.addTransition(new Transition(smap.get(s), smap
-                                .get(target), lbl));
+                    if (lo > Math.min(a.getMax(i), b.getMax(j)))
+                        continue;
 
-                        worklist.add(target);
-                    }
+                    int sid = search.visit(a.getTarget(i) * nb + b.getTarget
+                            (j), id, lo, d + 1);
+                    if (sid >= 0)
+                        search.addLast(sid);
                 }
+            }
+        }
+
+        return null;
+    }
 
+    /**
+     * Shortest paths to the product states found so far, and the queue of
+     * the search. Product states are encoded as p * |b| + q and numbered in
+     * the order of discovery.
+     */
+    private static final class ProductSearch {
+
+        private final LongIntMap ids = new LongIntMap();
+        long [] pairs = new long[16];
+        int [] dist = new int[16];
+        int [] pred = new int[16];
+        // character read on the way from pred, or -1 for epsilon
+        int [] chr = new int[16];
+
+        // ring buffer; a state is queued again when its distance improves
+        private int [] queue = new int[16];
+        private int head = 0;
+        private int count = 0;
+
+        boolean hasNext() {
+            return count > 0;
+        }
+
+        int next() {
+            int id = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            count--;
+            return id;
+        }
+
+        void addFirst(int id) {
+            grow();
+            head = (head - 1) & (queue.length - 1);
+            queue[head] = id;
+            count++;
+        }
+
+        void addLast(int id) {
+            grow();
+            queue[(head + count) & (queue.length - 1)] = id;
+            count++;
+        }
+
+        private void grow() {
+            if (count < queue.length)
+                return;
+            int [] q = new int[2 * queue.length];
+            for (int i = 0; i < count; i++)
+                q[i] = queue[(head + i) & (queue.length - 1)];
+            queue = q;
+            head = 0;
+        }
+
+        /**
+         * Reaches pq from the state with id from by reading c (-1 for an
+         * epsilon) with distance d.
+         *
+         * @return the id of pq if the distance improved, otherwise -1
+         */
+        int visit(long pq, int from, int c, int d) {
+
+            int id = ids.get(pq);
+
+            if (id >= 0 && dist[id] <= d)
+                return -1;
+
+            if (id < 0) {
+                id = ids.size();
+                ids.put(pq, id);
+                if (id == dist.length) {
+                    pairs = Arrays.copyOf(pairs, 2 * id);
+                    dist = Arrays.copyOf(dist, 2 * id);
+                    pred = Arrays.copyOf(pred, 2 * id);
+                    chr = Arrays.copyOf(chr, 2 * id);
+                }
+                pairs[id] = pq;
             }
+
+            dist[id] = d;
+            pred[id] = from;
+            chr[id] = c;
+            return id;
         }
 
-        return postProcess(ret);
+        String getString(int id) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = id; pred[i] >= 0; i = pred[i]) {
+                if (chr[i] >= 0)
+                    sb.append((char) chr[i]);
+            }
+            return sb.reverse().toString();
+        }
     }
 
     public T concat(T fst, T snd) {
@@ -180,35 +475,22 @@ public class BasicOperations <T extends AbstractAutomaton> {
 
     public T concat(T fst, T snd, boolean rmaccept) {
 
-        if (fst.isEmpty() && snd.isEmpty()) {
+        if (fst.isSingleState() && snd.isSingleState()) {
             return provider.getEmtpyAutomaton();
-        } else if (fst.isEmpty()) {
+        } else if (fst.isSingleState()) {
             return provider.getNewAutomaton(snd);
-        } else if (snd.isEmpty()) {
+        } else if (snd.isSingleState()) {
             return provider.getNewAutomaton(fst);
         }
 
 
         T a = provider.getNewAutomaton(fst);
-        T b = provider.getNewAutomaton(snd);
 
         State end = a.addVirtualEnd();
 
-        Map<State, State> smap = new HashMap<>();
-
-        Set<State> vs = b.vertexSet();
-
-        for (State s : vs) {
-            smap.put(s, a.createNewState(s.getKind()));
-        }
-
-        Set<Transition> es = b.edgeSet();
-        for (Transition t : es) {
-            a.addTransition(new Transition(smap.get(t.getSource()), smap.get(t
-                    .getTarget()), t.getLabel().clone()));
-        }
+        Map<State, State> smap = graft(a, snd);
 
-        a.addTransition(new Transition(end, smap.get(b.start)));
+        a.addTransition(new Transition(end, smap.get(snd.start)));
 
         if (rmaccept)
             end.setKind(State.Kind.NORMAL);
@@ -222,89 +504,71 @@ public class BasicOperations <T extends AbstractAutomaton> {
     }
 
     public T star(T fst) {
-
-        T opt = provider.getNewAutomaton(fst);
-        Set<State> acc = opt.getAcceptStates();
-
-        for (State a : acc) {
-            opt.addTransition(new Transition(a, opt.start));
-        }
-
-        T ret = optional(opt);
-
-        return postProcess(ret);
+        return repeatMin(fst, 0);
     }
 
     public T repeatMin(T fst, int min) {
 
-        T pat = provider.getNewAutomaton(fst);
-        T tauto = provider.getNewAutomaton();
-
-        if (min == 0) {
-            tauto = optional(pat);
-        }
-
-        for (int i = 0; i < min; i++) {
-            tauto = concat(tauto,pat);
-        }
+        T ret = provider.getNewAutomaton();
+        State cur = chain(ret, fst, min);
 
+        // loop over one more copy
+        State end = chain(ret, cur, fst);
+        ret.addTransition(new Transition(end, cur));
 
-        tauto = concat(tauto,star(pat));
-        return postProcess(tauto);
+        return postProcess(ret);
     }
 
+    /**
+     * @return an automaton for one to max repetitions of fst, or the empty
+     * language if max is 0
+     */
     public T repeatMax(T fst, int max) {
 
-        T pat = provider.getNewAutomaton(fst);
-        T tauto = provider.getNewAutomaton();
-
-        if (max == 0) {
-            T b = provider.getNewAutomaton();
-            b.start.setKind(State.Kind.NORMAL);
-        }
-
-        for (int i = 0; i < max; i++) {
-            tauto = concat(tauto,pat, false);
-        }
-
-        return postProcess(tauto);
+        if (max == 0)
+            return provider.getNewAutomaton();
 
+        return repeat(fst, 1, max);
     }
 
     public T repeat(T fst, int min, int max) {
 
-        T pat = provider.getNewAutomaton(fst);
-        T tauto = provider.getNewAutomaton();
-
-        if (min == 0) {
-            tauto = optional(pat);
-        }
+        T ret = provider.getNewAutomaton();
+        State cur = chain(ret, fst, min);
 
-        for (int i = 0; i < min; i++) {
-            tauto = concat(tauto, pat);
+        for (int i = min; i < max; i++) {
+            cur = chain(ret, cur, fst);
+            cur.setKind(State.Kind.ACCEPT);
         }
 
-        for (int i = 0; i < max - min; i++) {
-            tauto = concat(tauto,pat, false);
-        }
+        return postProcess(ret);
+    }
 
-        return postProcess(tauto);
+    /**
+     * Chains min copies of pat to the start of dst.
+     *
+     * @return the accepting state at the end of the chain
+     */
+    private State chain(T dst, T pat, int min) {
+        State cur = dst.start;
+        for (int i = 0; i < min; i++)
+            cur = chain(dst, cur, pat);
+        cur.setKind(State.Kind.ACCEPT);
+        return cur;
     }
 
     public T plus(T fst) {
-        T pat = provider.getNewAutomaton(fst);
-        T star = star(pat);
-        return concat(pat, star, false);
+        return repeatMin(fst, 1);
     }
 
     public T append(T fst, char c) {
         LOGGER.debug("append 1");
-        return append(fst,new CharRange(c, c));
+        return append(fst,CharRange.of(c, c));
     }
 
     public T append(T fst, char min, char max) {
         LOGGER.debug("append 2");
-        return append(fst,new CharRange(min, max));
+        return append(fst,CharRange.of(min, max));
     }
 
     public T append(T fst, TransitionLabel r) {
@@ -313,12 +577,12 @@ public class BasicOperations <T extends AbstractAutomaton> {
         assert a.start != null;
 
 
-        if (a.isEmpty()) {
+        if (a.isSingleState()) {
 
             LOGGER.debug("1");
             State n = a.createNewState(State.Kind.ACCEPT);
             LOGGER.debug("2");
-            a.addTransition(new Transition(a.start, n, r.clone()));
+            a.addTransition(new Transition(a.start, n, r));
 
         } else {
 
@@ -328,55 +592,68 @@ public class BasicOperations <T extends AbstractAutomaton> {
 
             LOGGER.debug(a.toDot());
 
-            a.incomingEdgesOf(vend).stream().forEach(x -> ((Transition)x)
-                    .setLabel(r.clone()));
+            // relabel the epsilons to the virtual end; they are replaced
+            // rather than modified so that the edge set stays consistent
+            Set<Transition> in = new HashSet<>(a.incomingEdgesOf(vend));
+            for (Transition t : in) {
+                a.removeEdge(t);
+                a.addTransition(new Transition(t.getSource(), vend, r));
+            }
 
         }
 
         return postProcess(a);
     }
 
+    /**
+     * @return the DFA of fst, or, if it exceeds the budget and the budget
+     * has the NFA fallback enabled, a copy of fst
+     * @throws BudgetExceededException if the DFA exceeds the budget
+     * @see #setBudget(Budget)
+     */
     public T determinize(T fst) {
-
-        LOGGER.debug(fst.toDot());
-
-        T dfa = provider.getNewAutomaton();
-
-
-        Map<State, Set<State>> eclosure = fst.getEpsilonClosure();
-
-
-        Map<Set<State>, State> nstat = new HashMap<>();
-
-        nstat.put(eclosure.get(fst.start), dfa.start);
-
-        assert eclosure.containsKey(fst.start);
-
-        assert fst.start != null;
-
-        if (eclosure.get(fst.start).stream()
-                .anyMatch(s -> s
-                .isAccept())) {
-            dfa.start.setKind(State.Kind.ACCEPT);
+        try {
+            return determinizeWithinBudget(fst);
+        } catch (BudgetExceededException e) {
+            return fallback(fst, e);
         }
+    }
 
-        _determinize(eclosure.get(fst.start), new HashSet<>(), nstat,
-                eclosure,
-                fst,
-                dfa);
+    /**
+     * Determinizes with the given pool; the result is identical to the one
+     * of {@link #determinize(AbstractAutomaton)}.
+     */
+    public T determinize(T fst, ForkJoinPool pool) {
+        try {
+            return Determinizer.toAutomaton(Determinizer.determinize(DenseNfa
+                    .of(fst), pool, budget.start("determinize")), provider);
+        } catch (BudgetExceededException e) {
+            return fallback(fst, e);
+        }
+    }
 
-        return dfa;
+    private T determinizeWithinBudget(T fst) {
+        return Determinizer.toAutomaton(Determinizer.determinize(DenseNfa.of
+                (fst), budget.start("determinize")), provider);
+    }
 
+    private T fallback(T fst, BudgetExceededException e) {
+        if (!budget.isNfaFallback())
+            throw e;
+        LOGGER.debug("keep nfa: {}", e.getMessage());
+        T cp = provider.getNewAutomaton(fst);
+        cp.canonical = false;
+        return cp;
     }
 
     public T minus (T fst, T snd){
 
         LOGGER.debug("minus");
 
-        if(fst.isEmpty() && !snd.isEmpty())
+        if(fst.isSingleState() && !snd.isSingleState())
             return provider.getEmtpyAutomaton();
 
-        if(!fst.isEmpty() && snd.isEmpty())
+        if(!fst.isSingleState() && snd.isSingleState())
             return provider.getNewAutomaton(fst);
 
         LOGGER.debug("intersect both automata");
@@ -385,12 +662,13 @@ public class BasicOperations <T extends AbstractAutomaton> {
     }
 
     public T complement(T fst) {
-        T det = determinize(fst);
+        // the complement has no nondeterministic form to fall back to
+        T det = determinizeWithinBudget(fst);
 
         State s = det.createNewState(State.Kind.NORMAL);
 
         det.addVertex(s);
-        det.addTransition(new Transition(s,s,CharRange.ANY.clone()));
+        det.addTransition(new Transition(s,s,CharRange.ANY));
 
         Set<State> states = det.vertexSet();
         for (State p : states) {
@@ -402,7 +680,7 @@ public class BasicOperations <T extends AbstractAutomaton> {
                 CharRange r = (CharRange)t.getLabel();
 
                 if (r.getMin() > cmin)
-                    det.addTransition(new Transition(p,s, new CharRange(
+                    det.addTransition(new Transition(p,s, CharRange.of(
                             cmin,(char)(r.getMin()-1))));
                 if (r.getMax() + 1 > cmin)
                     cmin = (char)(r.getMax() + 1);
@@ -422,125 +700,62 @@ public class BasicOperations <T extends AbstractAutomaton> {
     }
 
 
-    private void _determinize(Set<State> vdfastate,
-                              Set<Set<State>> visited,
-                              Map<Set<State>, State> nstat,
-                              Map<State, Set<State>> eclosure,
-                              AbstractAutomaton nfa,
-                              AbstractAutomaton dfa) {
-
-
-
-        if (visited.contains(vdfastate))
-            return;
-
-        visited.add(vdfastate);
-
-        Set<State> vdfaclosure = vdfastate
-                .stream()
-                .map(v -> eclosure.get(v))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
-
-
-        // get transition map for old automaton
-        Map<TransitionLabel, Set<State>> m = nfa.getCombinedTransitionMap
-                (vdfaclosure, t -> !((Transition)t).isEpsilon());
-
-        LOGGER.debug("%%%");
-        LOGGER.debug("VV {}", m.values());
-        // create (if necessary) corresponding states in the new automaton
-        for (Set<State> ss : m.values()) {
-
-            LOGGER.debug("T {}", ss);
-
-            State.Kind kind = ss.stream()
-                    .map(eclosure::get)
-                    .flatMap(Collection::stream)
-                    .anyMatch(e -> e.isAccept()) ? State.Kind.ACCEPT : State.Kind.NORMAL;
-
-
-            LOGGER.debug("SS {} :: {}", ss, kind);
-            if (!nstat.containsKey(ss)) {
-                nstat.put(ss, dfa.createNewState(kind));
-            }
-        }
-
-
-        for (Map.Entry<TransitionLabel, Set<State>> e : m.entrySet()) {
-
-            dfa.addTransition(new Transition(nstat.get(vdfastate), nstat.get
-                    (e.getValue()), e.getKey().clone()));
-
-        }
-
-        for (Set<State> nxt : m.values()) {
-            //if(!nstat.containsKey(nxt))
-            _determinize(nxt, visited, nstat, eclosure, nfa, dfa);
-        }
-
-    }
-
-
+    /**
+     * Removes all epsilon transitions: every state reachable from the start
+     * takes over the labeled transitions and the acceptance of its epsilon
+     * closure.
+     */
     public T eliminateEpsilons(T fst) {
 
-        Set<Transition> ed = fst.edgeSet();
-        if (ed.stream().filter(e -> e.isEpsilon()).count() == 0) {
+        DenseNfa nfa = DenseNfa.of(fst);
+
+        if (!nfa.hasEpsilons()) {
             return provider.getNewAutomaton(fst);
         }
 
-        Map<State, Set<State>> emap = fst.getEpsilonClosure();
-
-        Collection<Transition> ntrans = new HashSet<>();
+        int [][] closures = nfa.getClosures();
 
-        Set<State> naccept = new HashSet<>();
+        T a = provider.getNewAutomaton();
+        State [] states = new State[nfa.size()];
+        // every state is queued once, when its copy is created
+        int [] worklist = new int[nfa.size()];
+        int head = 0;
+        int tail = 0;
 
-        for (Map.Entry<State, Set<State>> cl : emap.entrySet()) {
+        int init = nfa.getInitial()[0];
+        states[init] = a.start;
+        a.start.setKind(isAccept(nfa, closures[init]) ? State.Kind.ACCEPT :
+                State.Kind.NORMAL);
+        worklist[tail++] = init;
 
-            State stat = cl.getKey();
-            Set<State> closure = cl.getValue();
+        while (head < tail) {
 
-            for (State s : closure) {
+            int s = worklist[head++];
 
-                boolean accept = closure.stream().filter(x -> x
-                        .isAccept()).count() > 0;
+            // the same transition may be reached via several closure states
+            Set<Transition> ntrans = new LinkedHashSet<>();
 
-                if (accept) {
-                    naccept.addAll(closure);
-                }
-
-                Set<Transition> out = fst.outgoingEdgesOf(s);
-
-                Set<Transition> trans = out.stream().filter(e
-                        -> !e.isEpsilon()).collect(Collectors.toSet());
+            for (int q : closures[s]) {
+                for (int k = nfa.getFirstTransition(q); k < nfa
+                        .getLastTransition(q); k++) {
 
+                    int t = nfa.getTarget(k);
 
-                for (Transition t : trans) {
-
-                    Set<State> reachable = emap.get(t.getTarget());
-
-                    for (State reach : reachable) {
-                        LOGGER.debug("trans {} --> {}", s, reach);
-                        ntrans.add(new Transition(stat, reach, t.getLabel()
-                                .clone()));
+                    if (states[t] == null) {
+                        states[t] = a.createNewState(isAccept(nfa,
+                                closures[t]) ? State.Kind.ACCEPT : State
+                                .Kind.NORMAL);
+                        worklist[tail++] = t;
                     }
 
+                    ntrans.add(new Transition(states[s], states[t], nfa
+                            .getMin(k), nfa.getMax(k)));
                 }
             }
 
+            ntrans.forEach(a::addTransition);
         }
 
-        for (Transition t : ntrans) {
-            if (naccept.contains(t.getSource()))
-                t.getSource().setKind(State.Kind.ACCEPT);
-
-            if (naccept.contains(t.getTarget()))
-                t.getTarget().setKind(State.Kind.ACCEPT);
-        }
-
-        T a = provider.getNewAutomaton(fst.start, ntrans);
-
-
         Set<State> acc =  a.getAcceptStates();
 
         Set<State> accepts = acc.stream().filter(v -> a
@@ -562,57 +777,72 @@ public class BasicOperations <T extends AbstractAutomaton> {
         return a;
     }
 
+    private static boolean isAccept(DenseNfa nfa, int [] set) {
+        for (int s : set) {
+            if (nfa.isAccept(s))
+                return true;
+        }
+        return false;
+    }
+
     protected T expand(T fst) {
         T cp = provider.getNewAutomaton(fst);
         cp.addVirtualEnd();
         return cp;
     }
 
+    /**
+     * Canonicalizes the result of an operation; fst is always an automaton
+     * the operation has created itself.
+     */
     protected T postProcess(T fst) {
-        T a = determinize(fst);
-        a.minimize();
-        return determinize(a);
+        if (deferred) {
+            fst.canonical = false;
+            return fst;
+        }
+        try {
+            fst.minimize();
+        } catch (BudgetExceededException e) {
+            if (!budget.isNfaFallback())
+                throw e;
+            LOGGER.debug("keep nfa: {}", e.getMessage());
+            fst.canonical = false;
+        }
+        return fst;
     }
 
+    /**
+     * @return a shortest accepted string, or null if the language is empty
+     */
     protected String getShortestString(T a) {
+        // breadth-first search over the dense snapshot
+        return FrozenAutomaton.of(canonical(a)).getShortestString();
+    }
 
-        Tuple<State,Set<Transition>> init = new Tuple(a.getStart(),new LinkedHashSet<>());
-
-        Tuple<State,Set<Transition>> shortestsofar = null;
-
-        LinkedList<Tuple<State,Set<Transition>>> wlist = new LinkedList<>();
-
-        wlist.add(init);
-
-        while(!wlist.isEmpty()) {
-            Tuple<State,Set<Transition>> nxt = wlist.pop();
-
-            if(shortestsofar != null && nxt.getVal().size() >= shortestsofar.getVal().size()) {
-                continue;
-            }
-
-            if(nxt.getKey().isAccept()) {
-                shortestsofar = nxt;
-                continue;
-            }
-
-            Set<Transition> out = a.outgoingEdgesOf(nxt.getKey());
-
-            for(Transition s : out) {
-                Set<Transition> trans = new LinkedHashSet<>(nxt.getVal());
-                trans.add(s);
-                Tuple<State,Set<Transition>> ncp = new Tuple(s.getTarget(), trans);
-                wlist.add(ncp);
-            }
-        }
-
+    protected boolean isEmpty(T a) {
+        return canonical(a).isSingleState();
+    }
 
-        return transToString(shortestsofar.val);
+    /**
+     * Queries must not modify their operand, so an automaton that is not
+     * canonical is minimized as a copy.
+     *
+     * @return a if it is canonical, or else its minimal DFA
+     */
+    private T canonical(T a) {
+        if (a.isCanonical())
+            return a;
+
+        T cp = provider.getNewAutomaton(a);
+        cp.minimize();
+        return cp;
     }
 
 
     public String getRandomString(T g, int maxsteps) {
 
+        g = canonical(g);
+
         Tuple<State,Set<Transition>> init = new Tuple(g.getStart(),new
                 LinkedHashSet<>());
 
@@ -0,0 +1,74 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+/**
+ * Brzozowski's double reversal: determinizing the reverse of the reverse
+ * DFA yields the minimal DFA. Works on nondeterministic automata directly
+ * and often beats determinize-then-minimize on them, but the intermediate
+ * DFA of the reversed language can be exponentially larger than the
+ * result.
+ */
+public class BrzozowskiMinimizer extends AbstractMinimizer {
+
+    @Override
+    public void minimize(AbstractAutomaton<?> a) {
+        Budget.Meter meter = startMeter();
+        DenseNfa rev = Determinizer.determinize(DenseNfa.of(a).reverse(),
+                meter);
+        minimize(a, rev, Integer.MAX_VALUE, meter);
+    }
+
+    /**
+     * Finishes the double reversal given the DFA of the reversed language.
+     *
+     * @return false if the result would exceed limit states; a is left
+     * unchanged then
+     */
+    boolean minimize(AbstractAutomaton<?> a, DenseNfa rev, int limit, Budget
+            .Meter meter) {
+
+        DenseNfa dfa = Determinizer.determinize(rev.reverse(), limit, meter);
+
+        if (dfa == null)
+            return false;
+
+        minimize(a, dfa);
+        return true;
+    }
+
+    /**
+     * The result of the double reversal is minimal already, every live
+     * state forms a block of its own.
+     */
+    @Override
+    protected int partition(DenseNfa dfa, boolean [] live, int [] block) {
+        for (int s = 0; s < dfa.size(); s++)
+            block[s] = s;
+        return dfa.size();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import com.github.julianthome.automate.exception.BudgetExceededException;
+import com.github.julianthome.automate.exception.BudgetExceededException.Resource;
+
+/**
+ * Upper bounds on the states, transitions and wall time that a single
+ * determinization or product construction may spend. Operations that
+ * exceed a budget throw a {@link BudgetExceededException}. With the NFA
+ * fallback enabled, operations whose result does not have to be
+ * deterministic return their nondeterministic intermediate instead; it is
+ * marked as not canonical and matched by NFA simulation.
+ *
+ * @see BasicOperations#setBudget(Budget)
+ */
+public final class Budget {
+
+    public static final Budget UNLIMITED = new Budget(Integer.MAX_VALUE,
+            Integer.MAX_VALUE, Long.MAX_VALUE, false);
+
+    private final int maxStates;
+    private final int maxTransitions;
+    private final long maxMillis;
+    private final boolean nfaFallback;
+
+    private Budget(int maxStates, int maxTransitions, long maxMillis,
+                   boolean nfaFallback) {
+        this.maxStates = maxStates;
+        this.maxTransitions = maxTransitions;
+        this.maxMillis = maxMillis;
+        this.nfaFallback = nfaFallback;
+    }
+
+    public Budget withMaxStates(int maxStates) {
+        return new Budget(maxStates, maxTransitions, maxMillis, nfaFallback);
+    }
+
+    public Budget withMaxTransitions(int maxTransitions) {
+        return new Budget(maxStates, maxTransitions, maxMillis, nfaFallback);
+    }
+
+    public Budget withMaxMillis(long maxMillis) {
+        return new Budget(maxStates, maxTransitions, maxMillis, nfaFallback);
+    }
+
+    public Budget withNfaFallback(boolean nfaFallback) {
+        return new Budget(maxStates, maxTransitions, maxMillis, nfaFallback);
+    }
+
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    public int getMaxTransitions() {
+        return maxTransitions;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public boolean isNfaFallback() {
+        return nfaFallback;
+    }
+
+    Meter start(String operation) {
+        return new Meter(operation);
+    }
+
+    /**
+     * Checks the resources of one running operation against the budget.
+     */
+    final class Meter {
+
+        private final String operation;
+        private final long start = System.nanoTime();
+
+        // the clock is only read every few checks
+        private int ticks = 0;
+
+        private Meter(String operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * @param states number of states built so far
+         * @param transitions number of transitions built so far
+         * @throws BudgetExceededException if a bound is exceeded
+         */
+        void check(int states, int transitions) {
+
+            if (states > maxStates)
+                throw exceeded(Resource.STATES, maxStates, states,
+                        transitions);
+
+            if (transitions > maxTransitions)
+                throw exceeded(Resource.TRANSITIONS, maxTransitions, states,
+                        transitions);
+
+            if (maxMillis != Long.MAX_VALUE && (++ticks & 0xff) == 0 &&
+                    getMillis() > maxMillis)
+                throw exceeded(Resource.TIME, maxMillis, states, transitions);
+        }
+
+        private long getMillis() {
+            return (System.nanoTime() - start) / 1000000;
+        }
+
+        private BudgetExceededException exceeded(Resource r, long limit, int
+                states, int transitions) {
+            return new BudgetExceededException(operation, r, limit, states,
+                    transitions, getMillis());
+        }
+    }
+}
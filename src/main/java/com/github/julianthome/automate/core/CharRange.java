@@ -35,27 +35,51 @@ import java.util.HashSet;
 import java.util.Set;
 
 
-public class CharRange implements TransitionLabel {
+/**
+ * Immutable range of characters. Ranges are obtained with
+ * {@link #of(char, char)}, which hands out shared instances for single
+ * ASCII characters and for {@link #ANY}; since labels cannot change, copies
+ * of an automaton share the labels of the original.
+ */
+public final class CharRange implements TransitionLabel {
 
     final static Logger LOGGER = LoggerFactory.getLogger(CharRange.class);
 
-    private char min;
-    private char max;
+    private final char min;
+    private final char max;
 
-    public static CharRange ANY = new CharRange(Character.MIN_VALUE,
+    public static final CharRange ANY = new CharRange(Character.MIN_VALUE,
             Character.MAX_VALUE);
 
+    private static final CharRange [] ASCII = new CharRange[128];
 
-    public CharRange(char c) {
-        min = c;
-        max = c;
+    static {
+        for (char c = 0; c < ASCII.length; c++)
+            ASCII[c] = new CharRange(c, c);
     }
 
-    public CharRange(char min, char max) {
+    private CharRange(char min, char max) {
         this.min = (char)Math.min(min,max);
         this.max = (char)Math.max(min,max);
     }
 
+    public static CharRange of(char c) {
+        return of(c, c);
+    }
+
+    /**
+     * @return the range between min and max; the bounds may be given in
+     * any order
+     */
+    public static CharRange of(char min, char max) {
+        if (min == max && min < ASCII.length)
+            return ASCII[min];
+        if (min == Character.MIN_VALUE && max == Character.MAX_VALUE ||
+                max == Character.MIN_VALUE && min == Character.MAX_VALUE)
+            return ANY;
+        return new CharRange(min, max);
+    }
+
     @Override
     public boolean match(TransitionLabel other) {
 
@@ -119,13 +143,13 @@ public class CharRange implements TransitionLabel {
 
         assert min <= max;
 
-        return new CharRange(min, max);
+        return of(min, max);
     }
 
     @Override
     public CharRange isect(TransitionLabel other) {
         if(other instanceof Epsilon)
-            return this.clone();
+            return this;
 
         if(other instanceof CharRange) {
             CharRange cr = (CharRange)other;
@@ -136,7 +160,7 @@ public class CharRange implements TransitionLabel {
             char mmin = (char)Math.max(min,cr.min);
             char mmax = (char)Math.min(max,cr.max);
 
-            return new CharRange(mmin, mmax);
+            return of(mmin, mmax);
         }
 
         return null;
@@ -161,7 +185,7 @@ public class CharRange implements TransitionLabel {
         Set<TransitionLabel> ret = new HashSet<>();
 
         if(l instanceof Epsilon) {
-            ret.add(this.clone());
+            ret.add(this);
         } else {
             CharRange other = (CharRange)l;
 
@@ -171,7 +195,7 @@ public class CharRange implements TransitionLabel {
 
                 LOGGER.debug("is {}", is);
                 if(is.min > Character.MIN_VALUE) {
-                    CharRange mm = new CharRange(Character.MIN_VALUE, (char)
+                    CharRange mm = of(Character.MIN_VALUE, (char)
                             (is.min-1));
 
                     if(this.isect(mm) != null) {
@@ -185,7 +209,7 @@ public class CharRange implements TransitionLabel {
 
                 if(is.max < Character.MAX_VALUE) {
 
-                    CharRange mm = new CharRange((char)(is.max+1), Character.MAX_VALUE);
+                    CharRange mm = of((char)(is.max+1), Character.MAX_VALUE);
 
                     if(this.isect(mm) != null) {
                         ret.add(this.isect(mm));
@@ -208,9 +232,12 @@ public class CharRange implements TransitionLabel {
         return this.min == this.max;
     }
 
+    /**
+     * @return this range; ranges are immutable
+     */
     @Override
     public CharRange clone() {
-        return new CharRange(this.min, this.max);
+        return this;
     }
 
     @Override
@@ -246,18 +273,10 @@ public class CharRange implements TransitionLabel {
         return min;
     }
 
-    public void setMin(char min) {
-        this.min = min;
-    }
-
     public char getMax() {
         return max;
     }
 
-    public void setMax(char max) {
-        this.max = max;
-    }
-
     public boolean hasOverlap(CharRange r) {
 
         boolean distict = max < r.min || min > r.max;
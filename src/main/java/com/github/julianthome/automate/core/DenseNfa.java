@@ -0,0 +1,633 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.*;
+
+/**
+ * Read-only snapshot of an automaton in which states are numbered densely
+ * from 0 to n-1 and transitions are kept in flat arrays. Labeled transitions
+ * of a state are sorted by their lower bound.
+ */
+public final class DenseNfa {
+
+    private final int [] initial;
+    private final boolean [] accept;
+
+    private final int [] off;
+    private final char [] min;
+    private final char [] max;
+    private final int [] to;
+
+    private final int [] eoff;
+    private final int [] eto;
+
+    private DenseNfa(int [] initial, boolean [] accept, int [] off, char []
+            min, char [] max, int [] to, int [] eoff, int [] eto) {
+        this.initial = initial;
+        this.accept = accept;
+        this.off = off;
+        this.min = min;
+        this.max = max;
+        this.to = to;
+        this.eoff = eoff;
+        this.eto = eto;
+    }
+
+    public static DenseNfa of(AbstractAutomaton<?> a) {
+        return of(a, a.vertexSet().toArray(new State[0]));
+    }
+
+    /**
+     * @param states all states of a; the i-th one gets the id i
+     */
+    static DenseNfa of(AbstractAutomaton<?> a, State [] states) {
+
+        int n = states.length;
+
+        // state ids are unique within an automaton
+        LongIntMap idx = new LongIntMap(n);
+
+        for (State s : states)
+            idx.put(s.getId(), idx.size());
+
+        boolean [] accept = new boolean[n];
+        int [] off = new int[n + 1];
+        int [] eoff = new int[n + 1];
+
+        int ntrans = 0;
+        int neps = 0;
+
+        for (int i = 0; i < n; i++) {
+            accept[i] = states[i].isAccept();
+            for (Transition t : a.outgoingEdgesOf(states[i])) {
+                if (t.isEpsilon())
+                    neps++;
+                else
+                    ntrans++;
+            }
+        }
+
+        char [] min = new char[ntrans];
+        char [] max = new char[ntrans];
+        int [] to = new int[ntrans];
+        int [] eto = new int[neps];
+
+        int k = 0;
+        int e = 0;
+
+        for (int i = 0; i < n; i++) {
+            off[i] = k;
+            eoff[i] = e;
+
+            List<Transition> out = new ArrayList<>(a.outgoingEdgesOf
+                    (states[i]));
+            out.sort(Comparator.comparingInt(t -> t.isEpsilon() ? -1 :
+                    ((CharRange) t.getLabel()).getMin()));
+
+            for (Transition t : out) {
+                if (t.isEpsilon()) {
+                    eto[e++] = idx.get(t.getTarget().getId());
+                } else {
+                    CharRange r = (CharRange) t.getLabel();
+                    min[k] = r.getMin();
+                    max[k] = r.getMax();
+                    to[k] = idx.get(t.getTarget().getId());
+                    k++;
+                }
+            }
+        }
+
+        off[n] = k;
+        eoff[n] = e;
+
+        return new DenseNfa(new int[]{idx.get(a.getStart().getId())}, accept, off,
+                min, max, to, eoff, eto);
+    }
+
+    /**
+     * Places the given snapshots side by side. The states of the i-th
+     * snapshot are shifted by the sum of the sizes of its predecessors; the
+     * initial states of the result are the initial states of all parts.
+     */
+    public static DenseNfa union(List<DenseNfa> parts) {
+
+        int n = 0;
+        int ntrans = 0;
+        int neps = 0;
+        int ninit = 0;
+
+        for (DenseNfa p : parts) {
+            n += p.size();
+            ntrans += p.to.length;
+            neps += p.eto.length;
+            ninit += p.initial.length;
+        }
+
+        int [] initial = new int[ninit];
+        boolean [] accept = new boolean[n];
+        int [] off = new int[n + 1];
+        char [] min = new char[ntrans];
+        char [] max = new char[ntrans];
+        int [] to = new int[ntrans];
+        int [] eoff = new int[n + 1];
+        int [] eto = new int[neps];
+
+        int base = 0;
+        int k = 0;
+        int e = 0;
+        int i = 0;
+
+        for (DenseNfa p : parts) {
+
+            for (int s : p.initial)
+                initial[i++] = s + base;
+
+            for (int s = 0; s < p.size(); s++) {
+                accept[base + s] = p.accept[s];
+                off[base + s] = k + p.off[s];
+                eoff[base + s] = e + p.eoff[s];
+            }
+
+            System.arraycopy(p.min, 0, min, k, p.to.length);
+            System.arraycopy(p.max, 0, max, k, p.to.length);
+
+            for (int j = 0; j < p.to.length; j++)
+                to[k + j] = p.to[j] + base;
+
+            for (int j = 0; j < p.eto.length; j++)
+                eto[e + j] = p.eto[j] + base;
+
+            base += p.size();
+            k += p.to.length;
+            e += p.eto.length;
+        }
+
+        off[n] = k;
+        eoff[n] = e;
+
+        return new DenseNfa(initial, accept, off, min, max, to, eoff, eto);
+    }
+
+    /**
+     * The subset construction of this snapshot over its alphabet classes.
+     * States that do not lead to an accept state are kept.
+     *
+     * @return the DFA of this snapshot; its initial state is 0
+     */
+    public DenseNfa determinize() {
+        return Determinizer.determinize(this);
+    }
+
+    /**
+     * Like {@link #determinize()}, and tells which states of this snapshot
+     * every DFA state stands for.
+     *
+     * @param subsets receives the sorted set of states of this snapshot of
+     * every DFA state, in the order of the DFA states
+     * @return the DFA of this snapshot; its initial state is 0
+     */
+    public DenseNfa determinize(List<int []> subsets) {
+        return Determinizer.determinize(this, subsets);
+    }
+
+    /**
+     * The snapshot of the reversed language: all transitions are flipped,
+     * former accept states become initial states and the former initial
+     * states become accepting.
+     */
+    public DenseNfa reverse() {
+
+        int n = size();
+
+        int [] off = new int[n + 1];
+        int [] eoff = new int[n + 1];
+
+        for (int i = 0; i < n; i++) {
+            for (int k = this.off[i]; k < this.off[i + 1]; k++)
+                off[this.to[k] + 1]++;
+            for (int k = this.eoff[i]; k < this.eoff[i + 1]; k++)
+                eoff[this.eto[k] + 1]++;
+        }
+
+        for (int i = 0; i < n; i++) {
+            off[i + 1] += off[i];
+            eoff[i + 1] += eoff[i];
+        }
+
+        char [] min = new char[this.min.length];
+        char [] max = new char[this.max.length];
+        int [] to = new int[this.to.length];
+        int [] eto = new int[this.eto.length];
+
+        int [] pos = Arrays.copyOf(off, n);
+        int [] epos = Arrays.copyOf(eoff, n);
+
+        for (int i = 0; i < n; i++) {
+            for (int k = this.off[i]; k < this.off[i + 1]; k++) {
+                int p = pos[this.to[k]]++;
+                min[p] = this.min[k];
+                max[p] = this.max[k];
+                to[p] = i;
+            }
+            for (int k = this.eoff[i]; k < this.eoff[i + 1]; k++)
+                eto[epos[this.eto[k]]++] = i;
+        }
+
+        // keep the per-state ordering by lower bound
+        for (int i = 0; i < n; i++)
+            sortRange(min, max, to, off[i], off[i + 1]);
+
+        boolean [] accept = new boolean[n];
+        for (int i : initial)
+            accept[i] = true;
+
+        int [] init = new int[n];
+        int ninit = 0;
+        for (int i = 0; i < n; i++) {
+            if (this.accept[i])
+                init[ninit++] = i;
+        }
+
+        return new DenseNfa(Arrays.copyOf(init, ninit), accept, off, min,
+                max, to, eoff, eto);
+    }
+
+    // ranges up to this length are insertion sorted
+    private static final int SMALL_RANGE = 16;
+
+    private static void sortRange(char [] min, char [] max, int [] to, int
+            from, int until) {
+
+        int len = until - from;
+
+        if (len <= SMALL_RANGE) {
+            for (int i = from + 1; i < until; i++) {
+                char mi = min[i];
+                char ma = max[i];
+                int t = to[i];
+                int j = i - 1;
+                while (j >= from && min[j] > mi) {
+                    min[j + 1] = min[j];
+                    max[j + 1] = max[j];
+                    to[j + 1] = to[j];
+                    j--;
+                }
+                min[j + 1] = mi;
+                max[j + 1] = ma;
+                to[j + 1] = t;
+            }
+            return;
+        }
+
+        // sort (lower bound, position) pairs packed into longs, which keeps
+        // the sort stable, and permute the transitions accordingly
+        long [] keys = new long[len];
+        for (int i = 0; i < len; i++)
+            keys[i] = (long) min[from + i] << 32 | i;
+
+        Arrays.sort(keys);
+
+        char [] smin = Arrays.copyOfRange(min, from, until);
+        char [] smax = Arrays.copyOfRange(max, from, until);
+        int [] sto = Arrays.copyOfRange(to, from, until);
+
+        for (int i = 0; i < len; i++) {
+            int k = (int) keys[i];
+            min[from + i] = smin[k];
+            max[from + i] = smax[k];
+            to[from + i] = sto[k];
+        }
+    }
+
+    /**
+     * Computes the epsilon closure of the given states.
+     *
+     * @param states state ids
+     * @return sorted array of all states reachable via epsilon transitions
+     */
+    public int [] closure(int [] states) {
+
+        boolean [] mark = new boolean[size()];
+        int [] stack = new int[size()];
+        int sp = 0;
+        int cnt = 0;
+
+        for (int s : states) {
+            if (!mark[s]) {
+                mark[s] = true;
+                stack[sp++] = s;
+                cnt++;
+            }
+        }
+
+        while (sp > 0) {
+            int s = stack[--sp];
+            for (int k = eoff[s]; k < eoff[s + 1]; k++) {
+                int t = eto[k];
+                if (!mark[t]) {
+                    mark[t] = true;
+                    stack[sp++] = t;
+                    cnt++;
+                }
+            }
+        }
+
+        int [] ret = new int[cnt];
+        int p = 0;
+        for (int i = 0; i < mark.length && p < cnt; i++) {
+            if (mark[i])
+                ret[p++] = i;
+        }
+        return ret;
+    }
+
+    /**
+     * Computes the epsilon closures of all states at once. Epsilon cycles
+     * are condensed with Tarjan's algorithm, which completes the strongly
+     * connected components in reverse topological order; the closure of a
+     * component is thus the union of its members and the closures of its
+     * successor components, which are known already. All members of a
+     * component share the same array.
+     *
+     * @return for every state the sorted ids of its epsilon closure
+     */
+    public int [][] getClosures() {
+
+        int n = size();
+        int [][] ret = new int[n][];
+
+        // dfs number + 1, or 0 if not visited yet
+        int [] index = new int[n];
+        int [] low = new int[n];
+        boolean [] onstack = new boolean[n];
+        int [] stack = new int[n];
+        int sp = 0;
+
+        // explicit call stack with the next epsilon to follow
+        int [] calls = new int[n];
+        int [] next = new int[n];
+        int cp = 0;
+
+        int [] stamp = new int[n];
+        int [] buf = new int[n];
+        int gen = 0;
+        int cnt = 0;
+
+        for (int r = 0; r < n; r++) {
+
+            if (index[r] != 0)
+                continue;
+
+            index[r] = low[r] = ++cnt;
+            next[r] = eoff[r];
+            stack[sp++] = r;
+            onstack[r] = true;
+            calls[cp++] = r;
+
+            while (cp > 0) {
+
+                int s = calls[cp - 1];
+
+                if (next[s] < eoff[s + 1]) {
+                    int t = eto[next[s]++];
+                    if (index[t] == 0) {
+                        index[t] = low[t] = ++cnt;
+                        next[t] = eoff[t];
+                        stack[sp++] = t;
+                        onstack[t] = true;
+                        calls[cp++] = t;
+                    } else if (onstack[t]) {
+                        low[s] = Math.min(low[s], index[t]);
+                    }
+                    continue;
+                }
+
+                cp--;
+                if (cp > 0)
+                    low[calls[cp - 1]] = Math.min(low[calls[cp - 1]],
+                            low[s]);
+
+                if (low[s] != index[s])
+                    continue;
+
+                // s is the root of a component on top of the stack
+                int first = sp - 1;
+                while (stack[first] != s)
+                    first--;
+
+                gen++;
+                int size = 0;
+
+                for (int i = first; i < sp; i++) {
+                    stamp[stack[i]] = gen;
+                    buf[size++] = stack[i];
+                }
+
+                // members of this component have no closure yet
+                for (int i = first; i < sp; i++) {
+                    int m = stack[i];
+                    for (int k = eoff[m]; k < eoff[m + 1]; k++) {
+                        int [] cl = ret[eto[k]];
+                        if (cl == null)
+                            continue;
+                        for (int q : cl) {
+                            if (stamp[q] != gen) {
+                                stamp[q] = gen;
+                                buf[size++] = q;
+                            }
+                        }
+                    }
+                }
+
+                int [] cl = Arrays.copyOf(buf, size);
+                Arrays.sort(cl);
+
+                for (int i = first; i < sp; i++) {
+                    ret[stack[i]] = cl;
+                    onstack[stack[i]] = false;
+                }
+                sp = first;
+            }
+        }
+
+        return ret;
+    }
+
+    public int size() {
+        return accept.length;
+    }
+
+    public int [] getInitial() {
+        return initial.clone();
+    }
+
+    public boolean isAccept(int s) {
+        return accept[s];
+    }
+
+    public int getTransitionCount() {
+        return to.length;
+    }
+
+    public int getFirstTransition(int s) {
+        return off[s];
+    }
+
+    public int getLastTransition(int s) {
+        return off[s + 1];
+    }
+
+    public char getMin(int k) {
+        return min[k];
+    }
+
+    public char getMax(int k) {
+        return max[k];
+    }
+
+    public int getTarget(int k) {
+        return to[k];
+    }
+
+    public int getFirstEpsilon(int s) {
+        return eoff[s];
+    }
+
+    public int getLastEpsilon(int s) {
+        return eoff[s + 1];
+    }
+
+    public int getEpsilonTarget(int k) {
+        return eto[k];
+    }
+
+    public boolean hasEpsilons() {
+        return eto.length > 0;
+    }
+
+    /**
+     * Assembles a snapshot state by state. States are numbered in the order
+     * in which they are added.
+     */
+    public static final class Builder {
+
+        private boolean [] accept = new boolean[16];
+        private int n = 0;
+
+        private int [] src = new int[16];
+        private char [] min = new char[16];
+        private char [] max = new char[16];
+        private int [] to = new int[16];
+        private int ntrans = 0;
+
+        private int [] esrc = new int[16];
+        private int [] eto = new int[16];
+        private int neps = 0;
+
+        public int addState(boolean isAccept) {
+            if (n == accept.length)
+                accept = Arrays.copyOf(accept, 2 * n);
+            accept[n] = isAccept;
+            return n++;
+        }
+
+        public void addTransition(int s, char lo, char hi, int t) {
+            assert s < n && t < n && lo <= hi;
+            if (ntrans == to.length) {
+                src = Arrays.copyOf(src, 2 * ntrans);
+                min = Arrays.copyOf(min, 2 * ntrans);
+                max = Arrays.copyOf(max, 2 * ntrans);
+                to = Arrays.copyOf(to, 2 * ntrans);
+            }
+            src[ntrans] = s;
+            min[ntrans] = lo;
+            max[ntrans] = hi;
+            to[ntrans] = t;
+            ntrans++;
+        }
+
+        public void addEpsilon(int s, int t) {
+            assert s < n && t < n;
+            if (neps == eto.length) {
+                esrc = Arrays.copyOf(esrc, 2 * neps);
+                eto = Arrays.copyOf(eto, 2 * neps);
+            }
+            esrc[neps] = s;
+            eto[neps] = t;
+            neps++;
+        }
+
+        public int size() {
+            return n;
+        }
+
+        public int getTransitionCount() {
+            return ntrans + neps;
+        }
+
+        public DenseNfa build(int ... initial) {
+
+            int [] off = new int[n + 1];
+            int [] eoff = new int[n + 1];
+
+            for (int k = 0; k < ntrans; k++)
+                off[src[k] + 1]++;
+            for (int k = 0; k < neps; k++)
+                eoff[esrc[k] + 1]++;
+
+            for (int i = 0; i < n; i++) {
+                off[i + 1] += off[i];
+                eoff[i + 1] += eoff[i];
+            }
+
+            char [] bmin = new char[ntrans];
+            char [] bmax = new char[ntrans];
+            int [] bto = new int[ntrans];
+            int [] beto = new int[neps];
+
+            int [] pos = Arrays.copyOf(off, n);
+            int [] epos = Arrays.copyOf(eoff, n);
+
+            for (int k = 0; k < ntrans; k++) {
+                int p = pos[src[k]]++;
+                bmin[p] = min[k];
+                bmax[p] = max[k];
+                bto[p] = to[k];
+            }
+
+            for (int k = 0; k < neps; k++)
+                beto[epos[esrc[k]]++] = eto[k];
+
+            for (int i = 0; i < n; i++)
+                sortRange(bmin, bmax, bto, off[i], off[i + 1]);
+
+            return new DenseNfa(initial.clone(), Arrays.copyOf(accept, n),
+                    off, bmin, bmax, bto, eoff, beto);
+        }
+    }
+}
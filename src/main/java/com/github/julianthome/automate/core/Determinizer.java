@@ -0,0 +1,400 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Subset construction with an explicit worklist. Sets of NFA states are
+ * sorted int arrays over the ids of a {@link DenseNfa}; they are interned
+ * in an open-addressing table whose hash is accumulated while a set is
+ * collected, so no set is hashed twice. Labels are handled as intervals of
+ * {@link AlphabetPartition} classes. States of the result that do not lead
+ * to an accept state are kept, like in the classic construction.
+ */
+final class Determinizer {
+
+    private final DenseNfa nfa;
+    private final int [][] closures;
+    private final AlphabetPartition classes;
+
+    // first and last class of every NFA transition
+    private final int [] clo;
+    private final int [] chi;
+
+    // interned subsets; the index is the id of the DFA state
+    private final List<int []> sets = new ArrayList<>();
+    private int [] hashes = new int[16];
+    private int [] table = new int[64];
+
+    // scratch space for collecting a subset
+    private final int [] stamp;
+    private final int [] buf;
+    private int gen = 0;
+
+    private Determinizer(DenseNfa nfa) {
+        this.nfa = nfa;
+        this.closures = nfa.getClosures();
+        this.classes = AlphabetPartition.of(nfa);
+
+        int n = nfa.getTransitionCount();
+        this.clo = new int[n];
+        this.chi = new int[n];
+        for (int k = 0; k < n; k++) {
+            clo[k] = classes.classOf(nfa.getMin(k));
+            chi[k] = classes.classOf(nfa.getMax(k));
+        }
+
+        this.stamp = new int[nfa.size()];
+        this.buf = new int[nfa.size()];
+        Arrays.fill(table, -1);
+    }
+
+    static <T extends AbstractAutomaton> T determinize(T fst,
+                                                      AutomatonProvider<T>
+                                                              provider) {
+        return toAutomaton(determinize(DenseNfa.of(fst)), provider);
+    }
+
+    /**
+     * @return the DFA of the given snapshot; its initial state is 0
+     */
+    static DenseNfa determinize(DenseNfa nfa) {
+        return determinize(nfa, Budget.UNLIMITED.start("determinize"));
+    }
+
+    /**
+     * @param subsets receives the sorted subset of every DFA state, in the
+     * order of the DFA states
+     * @return the DFA of the given snapshot; its initial state is 0
+     */
+    static DenseNfa determinize(DenseNfa nfa, List<int []> subsets) {
+        Determinizer d = new Determinizer(nfa);
+        DenseNfa dfa = d.run(Integer.MAX_VALUE, Budget.UNLIMITED.start
+                ("determinize"));
+        subsets.addAll(d.sets);
+        return dfa;
+    }
+
+    /**
+     * @return the DFA of the given snapshot
+     * @throws com.github.julianthome.automate.exception.BudgetExceededException
+     * if the DFA exceeds the budget of the meter
+     */
+    static DenseNfa determinize(DenseNfa nfa, Budget.Meter meter) {
+        return new Determinizer(nfa).run(Integer.MAX_VALUE, meter);
+    }
+
+    /**
+     * @return the DFA of the given snapshot, or null if it would have more
+     * than limit states
+     */
+    static DenseNfa determinize(DenseNfa nfa, int limit) {
+        return determinize(nfa, limit, Budget.UNLIMITED.start("determinize"));
+    }
+
+    static DenseNfa determinize(DenseNfa nfa, int limit, Budget.Meter meter) {
+        return new Determinizer(nfa).run(limit, meter);
+    }
+
+    /**
+     * @return the DFA of the given snapshot, computed with the given pool;
+     * it is identical to the one of {@link #determinize(DenseNfa)}
+     * @see ParallelDeterminizer
+     */
+    static DenseNfa determinize(DenseNfa nfa, ForkJoinPool pool) {
+        return determinize(nfa, pool, Budget.UNLIMITED.start("determinize"));
+    }
+
+    static DenseNfa determinize(DenseNfa nfa, ForkJoinPool pool, Budget
+            .Meter meter) {
+        // a single worker cannot make up for the extra allocations
+        if (pool.getParallelism() < 2)
+            return determinize(nfa, meter);
+        return new ParallelDeterminizer(nfa, pool).run(Integer.MAX_VALUE,
+                meter);
+    }
+
+    /**
+     * Converts a snapshot with a single initial state into an automaton.
+     */
+    static <T extends AbstractAutomaton> T toAutomaton(DenseNfa nfa,
+                                                      AutomatonProvider<T>
+                                                              provider) {
+        T a = provider.getNewAutomaton();
+        State [] states = new State[nfa.size()];
+        int init = nfa.getInitial()[0];
+
+        for (int s = 0; s < nfa.size(); s++) {
+            State.Kind kind = nfa.isAccept(s) ? State.Kind.ACCEPT : State
+                    .Kind.NORMAL;
+            if (s == init) {
+                states[s] = a.getStart();
+                states[s].setKind(kind);
+            } else {
+                states[s] = a.createNewState(kind);
+                a.addVertex(states[s]);
+            }
+        }
+
+        for (int s = 0; s < nfa.size(); s++) {
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++)
+                a.addTransition(new Transition(states[s], states[nfa
+                        .getTarget(k)], nfa.getMin(k), nfa.getMax(k)));
+            for (int k = nfa.getFirstEpsilon(s); k < nfa.getLastEpsilon(s);
+                 k++)
+                a.addTransition(new Transition(states[s], states[nfa
+                        .getEpsilonTarget(k)]));
+        }
+
+        return a;
+    }
+
+    private DenseNfa run(int limit, Budget.Meter meter) {
+
+        DenseNfa.Builder dfa = new DenseNfa.Builder();
+
+        // collect the closure of the initial states
+        int g = ++gen;
+        int cnt = 0;
+        int h = 0;
+        for (int s : nfa.getInitial()) {
+            for (int t : closures[s]) {
+                if (stamp[t] != g) {
+                    stamp[t] = g;
+                    buf[cnt++] = t;
+                    h += mix(t);
+                }
+            }
+        }
+        intern(cnt, h);
+        dfa.addState(isAccept(sets.get(0)));
+
+        // transitions of the current subset, sorted by their first class
+        int [] active = new int[16];
+        long [] order = new long[16];
+
+        // DFA states are numbered in the order of discovery, hence the
+        // interned sets double as the worklist
+        for (int cur = 0; cur < sets.size(); cur++) {
+
+            meter.check(dfa.size(), dfa.getTransitionCount());
+
+            int [] set = sets.get(cur);
+
+            int ntrans = 0;
+            for (int s : set)
+                ntrans += nfa.getLastTransition(s) - nfa.getFirstTransition
+                        (s);
+
+            if (ntrans == 0)
+                continue;
+
+            if (order.length < ntrans) {
+                order = new long[2 * ntrans];
+                active = new int[2 * ntrans];
+            }
+
+            int [] pts = new int[2 * ntrans];
+            int np = 0;
+            int no = 0;
+
+            for (int s : set) {
+                for (int k = nfa.getFirstTransition(s); k < nfa
+                        .getLastTransition(s); k++) {
+                    order[no++] = (long) clo[k] << 32 | k;
+                    pts[np++] = clo[k];
+                    pts[np++] = chi[k] + 1;
+                }
+            }
+
+            Arrays.sort(order, 0, no);
+            Arrays.sort(pts, 0, np);
+
+            int na = 0;
+            int next = 0;
+
+            // pending transition that is extended while targets agree
+            int ptarget = -1;
+            int plo = 0;
+            int phi = 0;
+
+            for (int i = 0; i < np; i++) {
+
+                int lo = pts[i];
+
+                if (i + 1 < np && pts[i + 1] == lo)
+                    continue;
+
+                if (i + 1 == np)
+                    break;
+
+                int hi = pts[i + 1] - 1;
+
+                // drop transitions ending before lo, add those starting at lo
+                int w = 0;
+                for (int a = 0; a < na; a++) {
+                    if (chi[active[a]] >= lo)
+                        active[w++] = active[a];
+                }
+                na = w;
+                while (next < no && (int) (order[next] >>> 32) == lo)
+                    active[na++] = (int) order[next++];
+
+                if (na == 0)
+                    continue;
+
+                g = ++gen;
+                cnt = 0;
+                h = 0;
+                for (int a = 0; a < na; a++) {
+                    for (int t : closures[nfa.getTarget(active[a])]) {
+                        if (stamp[t] != g) {
+                            stamp[t] = g;
+                            buf[cnt++] = t;
+                            h += mix(t);
+                        }
+                    }
+                }
+
+                int size = sets.size();
+                int target = intern(cnt, h);
+
+                if (target == size) {
+                    if (size == limit)
+                        return null;
+                    dfa.addState(isAccept(sets.get(target)));
+                }
+
+                if (target == ptarget && phi + 1 == lo) {
+                    phi = hi;
+                    continue;
+                }
+
+                if (ptarget >= 0)
+                    dfa.addTransition(cur, classes.getMin(plo), classes
+                            .getMax(phi), ptarget);
+
+                ptarget = target;
+                plo = lo;
+                phi = hi;
+            }
+
+            if (ptarget >= 0)
+                dfa.addTransition(cur, classes.getMin(plo), classes.getMax
+                        (phi), ptarget);
+        }
+
+        meter.check(dfa.size(), dfa.getTransitionCount());
+
+        return dfa.build(0);
+    }
+
+    private boolean isAccept(int [] set) {
+        for (int s : set) {
+            if (nfa.isAccept(s))
+                return true;
+        }
+        return false;
+    }
+
+    private static int mix(int s) {
+        int h = s * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Looks up the subset held in the first cnt entries of buf and adds it
+     * if it is new.
+     *
+     * @return the id of the subset
+     */
+    private int intern(int cnt, int h) {
+
+        int mask = table.length - 1;
+
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+
+            int id = table[i];
+
+            if (id < 0)
+                break;
+
+            if (hashes[id] == h && sets.get(id).length == cnt &&
+                    isCollected(sets.get(id)))
+                return id;
+        }
+
+        int [] set = Arrays.copyOf(buf, cnt);
+        Arrays.sort(set);
+
+        int id = sets.size();
+        sets.add(set);
+
+        if (id == hashes.length)
+            hashes = Arrays.copyOf(hashes, 2 * id);
+        hashes[id] = h;
+
+        if (2 * sets.size() > table.length)
+            rehash();
+        else
+            insert(id, h);
+
+        return id;
+    }
+
+    /**
+     * Compares an interned (sorted) subset with the subset in buf, whose
+     * members are marked with the current generation.
+     */
+    private boolean isCollected(int [] set) {
+        for (int s : set) {
+            if (stamp[s] != gen)
+                return false;
+        }
+        return true;
+    }
+
+    private void insert(int id, int h) {
+        int mask = table.length - 1;
+        int i = h & mask;
+        while (table[i] >= 0)
+            i = (i + 1) & mask;
+        table[i] = id;
+    }
+
+    private void rehash() {
+        table = new int[2 * table.length];
+        Arrays.fill(table, -1);
+        for (int id = 0; id < sets.size(); id++)
+            insert(id, hashes[id]);
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Incremental construction of the minimal acyclic DFA of a sorted word
+ * list (Daciuk et al.). Only the path of the last added word is mutable;
+ * as soon as a later word leaves that path, the abandoned suffix is
+ * replaced by an equivalent state from the register or registered itself.
+ * Memory is therefore bounded by the size of the minimal automaton plus
+ * the length of the longest word.
+ *
+ * Words have to be added in ascending order of {@link String#compareTo}
+ * (UTF-16 code units); duplicates are ignored.
+ */
+public class DictionaryBuilder<T extends AbstractAutomaton> {
+
+    private static class Node {
+
+        boolean accept = false;
+        char [] labels = new char[0];
+        Node [] targets = new Node[0];
+        int size = 0;
+
+        Node getLast() {
+            return targets[size - 1];
+        }
+
+        void setLast(Node n) {
+            targets[size - 1] = n;
+        }
+
+        Node add(char c) {
+            if (size == labels.length) {
+                int cap = Math.max(2, 2 * size);
+                labels = Arrays.copyOf(labels, cap);
+                targets = Arrays.copyOf(targets, cap);
+            }
+            Node n = new Node();
+            labels[size] = c;
+            targets[size] = n;
+            size++;
+            return n;
+        }
+
+        // shrinks the arrays once the node is frozen
+        void trim() {
+            if (size < labels.length) {
+                labels = Arrays.copyOf(labels, size);
+                targets = Arrays.copyOf(targets, size);
+            }
+        }
+
+        // targets are registered already, so they are compared by identity
+        @Override
+        public int hashCode() {
+            int h = accept ? 1 : 0;
+            for (int i = 0; i < size; i++) {
+                h = 31 * h + labels[i];
+                h = 31 * h + System.identityHashCode(targets[i]);
+            }
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node))
+                return false;
+            Node n = (Node) o;
+            if (accept != n.accept || size != n.size)
+                return false;
+            for (int i = 0; i < size; i++) {
+                if (labels[i] != n.labels[i] || targets[i] != n.targets[i])
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    private final AutomatonProvider<T> provider;
+
+    private final Map<Node, Node> register = new HashMap<>();
+
+    // path[i] is the node reached by the first i characters of prev
+    private Node [] path = new Node[16];
+
+    private String prev = null;
+
+    private boolean done = false;
+
+    public DictionaryBuilder(AutomatonProvider<T> provider) {
+        this.provider = provider;
+        path[0] = new Node();
+    }
+
+    /**
+     * Adds a word to the dictionary.
+     *
+     * @param word word that is not smaller than the previously added one
+     * @throws IllegalArgumentException if the word is out of order
+     * @throws IllegalStateException if the automaton was built already
+     */
+    public void add(CharSequence word) {
+
+        if (done)
+            throw new IllegalStateException("automaton was built already");
+
+        String w = word.toString();
+
+        int pfx = 0;
+
+        if (prev != null) {
+            int cmp = prev.compareTo(w);
+            if (cmp > 0)
+                throw new IllegalArgumentException("words are not sorted: " +
+                        "'" + w + "' follows '" + prev + "'");
+            if (cmp == 0)
+                return;
+
+            int len = Math.min(prev.length(), w.length());
+            while (pfx < len && prev.charAt(pfx) == w.charAt(pfx))
+                pfx++;
+
+            freeze(pfx);
+        }
+
+        if (path.length <= w.length())
+            path = Arrays.copyOf(path, Math.max(w.length() + 1, 2 * path
+                    .length));
+
+        for (int i = pfx; i < w.length(); i++)
+            path[i + 1] = path[i].add(w.charAt(i));
+
+        path[w.length()].accept = true;
+        prev = w;
+    }
+
+    /**
+     * Replaces or registers the nodes of the previous word below the given
+     * depth; they cannot change anymore.
+     */
+    private void freeze(int depth) {
+        for (int i = prev.length(); i > depth; i--) {
+            Node n = path[i];
+            n.trim();
+            Node reg = register.get(n);
+            if (reg != null) {
+                path[i - 1].setLast(reg);
+            } else {
+                register.put(n, n);
+            }
+            path[i] = null;
+        }
+    }
+
+    /**
+     * @return the minimal DFA accepting exactly the added words
+     */
+    public T build() {
+
+        if (!done && prev != null)
+            freeze(0);
+
+        done = true;
+        register.clear();
+
+        Node root = path[0];
+
+        T a = provider.getNewAutomaton();
+        if (root.accept)
+            a.start.setKind(State.Kind.ACCEPT);
+
+        Map<Node, State> smap = new IdentityHashMap<>();
+        smap.put(root, a.start);
+
+        Deque<Node> worklist = new ArrayDeque<>();
+        worklist.add(root);
+
+        while (!worklist.isEmpty()) {
+
+            Node n = worklist.pop();
+            State src = smap.get(n);
+
+            for (int i = 0; i < n.size; i++) {
+
+                Node t = n.targets[i];
+                State tar = smap.get(t);
+
+                if (tar == null) {
+                    tar = a.createNewState(t.accept ? State.Kind.ACCEPT :
+                            State.Kind.NORMAL);
+                    smap.put(t, tar);
+                    worklist.add(t);
+                }
+
+                // merge adjacent labels that lead to the same node
+                char lo = n.labels[i];
+                while (i + 1 < n.size && n.targets[i + 1] == t && n
+                        .labels[i + 1] == n.labels[i] + 1)
+                    i++;
+
+                a.addTransition(new Transition(src, tar, lo, n.labels[i]));
+            }
+        }
+
+        // the register guarantees that no two states are equivalent
+        a.canonical = true;
+        return a;
+    }
+}
@@ -30,9 +30,14 @@ import java.util.Collection;
 import java.util.HashSet;
 
 
-public class Epsilon implements TransitionLabel {
+/**
+ * Label of epsilon transitions; there is a single instance.
+ */
+public final class Epsilon implements TransitionLabel {
+
+    public static final Epsilon EPSILON = new Epsilon();
 
-    public Epsilon() {}
+    private Epsilon() {}
 
     @Override
     public String toDot() {
@@ -66,12 +71,12 @@ public class Epsilon implements TransitionLabel {
 
     @Override
     public TransitionLabel join(TransitionLabel l) {
-        return l.clone();
+        return l;
     }
 
     @Override
     public TransitionLabel isect(TransitionLabel l) {
-        return l.clone();
+        return l;
     }
 
     @Override
@@ -85,7 +90,7 @@ public class Epsilon implements TransitionLabel {
     }
 
     public Epsilon clone() {
-        return new Epsilon();
+        return this;
     }
 
     @Override
@@ -0,0 +1,411 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable automaton in compressed sparse row form. The transitions of
+ * state s are kept at the indices off[s] to off[s+1]-1 of three primitive
+ * arrays, sorted by their lower bound; accept states are a bitset. There
+ * are no epsilon transitions, epsilon closures are resolved when an
+ * automaton is frozen. Compared with {@link AbstractAutomaton}, which keeps
+ * a {@link Transition} object and the edge containers of jgrapht for every
+ * transition, this needs a fraction of the heap, so large automata can be
+ * kept around for matching and queries.
+ *
+ * @see AbstractAutomaton#freeze()
+ */
+public final class FrozenAutomaton implements DotSerializer {
+
+    // "aMF1" in front of the serialized form
+    private static final int MAGIC = 0x614d4631;
+
+    private final int start;
+    private final long [] accept;
+
+    private final int [] off;
+    private final char [] min;
+    private final char [] max;
+    private final int [] to;
+
+    private final boolean deterministic;
+
+    // true if frozen from the minimal DFA of the language
+    private final boolean minimal;
+
+    private FrozenAutomaton(int start, long [] accept, int [] off, char []
+            min, char [] max, int [] to, boolean minimal) {
+        this.start = start;
+        this.accept = accept;
+        this.off = off;
+        this.min = min;
+        this.max = max;
+        this.to = to;
+        this.minimal = minimal;
+        this.deterministic = isDeterministic(off, min, max);
+    }
+
+    /**
+     * Freezes the current content of a; later changes to a are not
+     * reflected.
+     */
+    public static FrozenAutomaton of(AbstractAutomaton<?> a) {
+
+        DenseNfa nfa = DenseNfa.of(a);
+        int n = nfa.size();
+        int [][] closures = nfa.hasEpsilons() ? nfa.getClosures() : null;
+
+        long [] accept = new long[(n + 63) >>> 6];
+        int [] off = new int[n + 1];
+
+        for (int s = 0; s < n; s++) {
+            int cnt = 0;
+            boolean acc = false;
+            for (int t : closure(closures, s)) {
+                cnt += nfa.getLastTransition(t) - nfa.getFirstTransition(t);
+                acc |= nfa.isAccept(t);
+            }
+            off[s + 1] = off[s] + cnt;
+            if (acc)
+                accept[s >>> 6] |= 1L << s;
+        }
+
+        char [] min = new char[off[n]];
+        char [] max = new char[off[n]];
+        int [] to = new int[off[n]];
+        long [] order = new long[16];
+
+        for (int s = 0; s < n; s++) {
+
+            int cnt = 0;
+            for (int t : closure(closures, s)) {
+                for (int k = nfa.getFirstTransition(t); k < nfa
+                        .getLastTransition(t); k++) {
+                    if (cnt == order.length)
+                        order = Arrays.copyOf(order, 2 * cnt);
+                    order[cnt++] = (long) nfa.getMin(k) << 32 | k;
+                }
+            }
+
+            // transitions taken over from a closure have to be merged
+            if (closures != null)
+                Arrays.sort(order, 0, cnt);
+
+            for (int i = 0; i < cnt; i++) {
+                int k = (int) order[i];
+                min[off[s] + i] = nfa.getMin(k);
+                max[off[s] + i] = nfa.getMax(k);
+                to[off[s] + i] = nfa.getTarget(k);
+            }
+        }
+
+        return new FrozenAutomaton(nfa.getInitial()[0], accept, off, min,
+                max, to, a.isCanonical());
+    }
+
+    private static int [] closure(int [][] closures, int s) {
+        return closures == null ? new int[]{s} : closures[s];
+    }
+
+    private static boolean isDeterministic(int [] off, char [] min, char []
+            max) {
+        for (int s = 0; s + 1 < off.length; s++) {
+            for (int k = off[s] + 1; k < off[s + 1]; k++) {
+                if (min[k] <= max[k - 1])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a new automaton with the language of this one
+     */
+    public Automaton toAutomaton() {
+        return toAutomaton(AutomatonFactory.getInstance());
+    }
+
+    public <T extends AbstractAutomaton> T toAutomaton(AutomatonProvider<T>
+                                                               provider) {
+        T a = Determinizer.toAutomaton(toDenseNfa(), provider);
+        a.canonical = minimal;
+        return a;
+    }
+
+    DenseNfa toDenseNfa() {
+        DenseNfa.Builder b = new DenseNfa.Builder();
+        for (int s = 0; s < size(); s++)
+            b.addState(isAccept(s));
+        for (int s = 0; s < size(); s++) {
+            for (int k = off[s]; k < off[s + 1]; k++)
+                b.addTransition(s, min[k], max[k], to[k]);
+        }
+        return b.build(start);
+    }
+
+    public int size() {
+        return off.length - 1;
+    }
+
+    public int getTransitionCount() {
+        return to.length;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public boolean isAccept(int s) {
+        return (accept[s >>> 6] & 1L << s) != 0;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * @return true if this automaton was frozen from the minimal DFA of its
+     * language
+     */
+    public boolean isMinimal() {
+        return minimal;
+    }
+
+    public boolean match(CharSequence s) {
+
+        if (deterministic) {
+            int cur = start;
+            for (int i = 0; i < s.length() && cur >= 0; i++)
+                cur = step(cur, s.charAt(i));
+            return cur >= 0 && isAccept(cur);
+        }
+
+        // simulate the NFA on a set of states
+        int [] cur = new int[size()];
+        int [] nxt = new int[size()];
+        int [] stamp = new int[size()];
+        int ncur = 1;
+        cur[0] = start;
+
+        for (int i = 0; i < s.length() && ncur > 0; i++) {
+            char c = s.charAt(i);
+            int nnxt = 0;
+            for (int j = 0; j < ncur; j++) {
+                int p = cur[j];
+                for (int k = off[p]; k < off[p + 1] && min[k] <= c; k++) {
+                    if (c <= max[k] && stamp[to[k]] != i + 1) {
+                        stamp[to[k]] = i + 1;
+                        nxt[nnxt++] = to[k];
+                    }
+                }
+            }
+            int [] tmp = cur;
+            cur = nxt;
+            nxt = tmp;
+            ncur = nnxt;
+        }
+
+        for (int j = 0; j < ncur; j++) {
+            if (isAccept(cur[j]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the successor of a state of a deterministic automaton, or -1
+     */
+    private int step(int s, char c) {
+
+        // last transition whose lower bound is not above c
+        int lo = off[s];
+        int hi = off[s + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (min[mid] <= c)
+                lo = mid + 1;
+            else
+                hi = mid - 1;
+        }
+
+        return hi >= off[s] && c <= max[hi] ? to[hi] : -1;
+    }
+
+    /**
+     * @return true if no string, not even the empty one, is accepted
+     */
+    public boolean isEmpty() {
+        return getShortestString() == null;
+    }
+
+    /**
+     * @return a shortest accepted string, or null if the language is empty
+     */
+    public String getShortestString() {
+
+        int [] pred = new int[size()];
+        int [] via = new int[size()];
+        int [] queue = new int[size()];
+        Arrays.fill(pred, -2);
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        pred[start] = -1;
+
+        while (head < tail) {
+
+            int s = queue[head++];
+
+            if (isAccept(s)) {
+                StringBuilder sb = new StringBuilder();
+                for (int p = s; pred[p] >= 0; p = pred[p])
+                    sb.append(min[via[p]]);
+                return sb.reverse().toString();
+            }
+
+            for (int k = off[s]; k < off[s + 1]; k++) {
+                if (pred[to[k]] == -2) {
+                    pred[to[k]] = s;
+                    via[to[k]] = k;
+                    queue[tail++] = to[k];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes this automaton in a compact binary form that can be read back
+     * with {@link #read(DataInput)}.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(size());
+        out.writeInt(getTransitionCount());
+        out.writeInt(start);
+        out.writeBoolean(minimal);
+        for (long w : accept)
+            out.writeLong(w);
+        for (int s = 0; s < size(); s++)
+            out.writeInt(off[s + 1] - off[s]);
+        for (int k = 0; k < to.length; k++) {
+            out.writeChar(min[k]);
+            out.writeChar(max[k]);
+            out.writeInt(to[k]);
+        }
+    }
+
+    /**
+     * @throws IOException if the input does not hold an automaton written by
+     * {@link #write(DataOutput)}
+     */
+    public static FrozenAutomaton read(DataInput in) throws IOException {
+
+        if (in.readInt() != MAGIC)
+            throw new IOException("not a frozen automaton");
+
+        int n = in.readInt();
+        int m = in.readInt();
+        int start = in.readInt();
+        boolean minimal = in.readBoolean();
+
+        if (n <= 0 || m < 0 || start < 0 || start >= n)
+            throw new IOException("malformed frozen automaton");
+
+        long [] accept = new long[(n + 63) >>> 6];
+        for (int i = 0; i < accept.length; i++)
+            accept[i] = in.readLong();
+
+        // no accept bits beyond the last state
+        if ((n & 63) != 0 && accept[accept.length - 1] >>> (n & 63) != 0)
+            throw new IOException("malformed frozen automaton");
+
+        int [] off = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            int cnt = in.readInt();
+            if (cnt < 0 || cnt > m - off[s])
+                throw new IOException("malformed frozen automaton");
+            off[s + 1] = off[s] + cnt;
+        }
+
+        if (off[n] != m)
+            throw new IOException("malformed frozen automaton");
+
+        char [] min = new char[m];
+        char [] max = new char[m];
+        int [] to = new int[m];
+        for (int s = 0; s < n; s++) {
+            for (int k = off[s]; k < off[s + 1]; k++) {
+                min[k] = in.readChar();
+                max[k] = in.readChar();
+                to[k] = in.readInt();
+                // ranges of a state are written in ascending order
+                if (min[k] > max[k] || to[k] < 0 || to[k] >= n || (k > off[s]
+                        && min[k] < min[k - 1]))
+                    throw new IOException("malformed frozen automaton");
+            }
+        }
+
+        return new FrozenAutomaton(start, accept, off, min, max, to,
+                minimal);
+    }
+
+    @Override
+    public String toDot() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("digraph {\n" +
+                "\trankdir=TB;\n");
+
+        sb.append("\tnode [fontname=Helvetica,fontsize=11];\n");
+        sb.append("\tedge [fontname=Helvetica,fontsize=10];\n");
+
+        for (int s = 0; s < size(); s++) {
+            sb.append("\ts" + s + " [label=\"s" + s + "\",shape=\"" +
+                    (isAccept(s) ? "doublecircle" : "circle") + "\", " +
+                    "color=\"" + (s == start ? "green" : "") + "\"];\n");
+        }
+
+        for (int s = 0; s < size(); s++) {
+            for (int k = off[s]; k < off[s + 1]; k++) {
+                sb.append("\ts" + s + " -> s" + to[k] + "[label=\"" +
+                        CharRange.of(min[k], max[k]).toDot() + "\", " +
+                        "color=\"black\"];\n");
+            }
+        }
+
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.Arrays;
+
+/**
+ * Hopcroft's partition refinement in O(k n log n) for a DFA with n states
+ * over k alphabet classes. The trimmed DFA is completed with a dead state;
+ * blocks are refined until no block is split by the predecessors of another
+ * one any more. Needs O(k n) memory for the completed transition table, so
+ * it suits automata over few alphabet classes.
+ */
+public class HopcroftMinimizer extends AbstractMinimizer {
+
+    @Override
+    protected int partition(DenseNfa dfa, boolean [] live, int [] block) {
+        return new Refinement(dfa, live).run(block);
+    }
+
+    private static final class Refinement {
+
+        private final DenseNfa dfa;
+        private final AlphabetPartition classes;
+        private final int k;
+
+        // live states are numbered 0..n-1, the dead state is n
+        private final int [] dense;
+        private final int [] sparse;
+        private final int n;
+
+        // predecessors of state q by class c at inv[ioff[q*k+c] .. ]
+        private int [] ioff;
+        private int [] inv;
+
+        // the states of block b are elems[first[b]..last[b]-1]
+        private final int [] elems;
+        private final int [] loc;
+        private final int [] block;
+        private final int [] first;
+        private final int [] last;
+        private final int [] marked;
+        private int nblocks = 0;
+
+        private Refinement(DenseNfa dfa, boolean [] live) {
+            this.dfa = dfa;
+            this.classes = AlphabetPartition.of(dfa);
+            this.k = classes.getClassCount();
+
+            this.dense = new int[dfa.size()];
+            this.sparse = new int[dfa.size() + 1];
+
+            int cnt = 0;
+            for (int s = 0; s < dfa.size(); s++) {
+                dense[s] = live[s] ? cnt : -1;
+                if (live[s])
+                    sparse[cnt++] = s;
+            }
+            this.n = cnt;
+
+            this.elems = new int[n + 1];
+            this.loc = new int[n + 1];
+            this.block = new int[n + 1];
+            this.first = new int[n + 1];
+            this.last = new int[n + 1];
+            this.marked = new int[n + 1];
+        }
+
+        /**
+         * @return the successor of every dense state by every class in the
+         * completed DFA
+         */
+        private int [] getDelta() {
+
+            int [] delta = new int[(n + 1) * k];
+            Arrays.fill(delta, n);
+
+            for (int q = 0; q < n; q++) {
+                int s = sparse[q];
+                for (int t = dfa.getFirstTransition(s); t < dfa
+                        .getLastTransition(s); t++) {
+                    int tar = dense[dfa.getTarget(t)];
+                    if (tar < 0)
+                        continue;
+                    for (int c = classes.classOf(dfa.getMin(t)); c <= classes
+                            .classOf(dfa.getMax(t)); c++)
+                        delta[q * k + c] = tar;
+                }
+            }
+
+            return delta;
+        }
+
+        private void buildInverse(int [] delta) {
+
+            ioff = new int[(n + 1) * k + 1];
+            inv = new int[delta.length];
+
+            for (int i = 0; i < delta.length; i++)
+                ioff[delta[i] * k + i % k + 1]++;
+
+            for (int i = 0; i < (n + 1) * k; i++)
+                ioff[i + 1] += ioff[i];
+
+            int [] pos = Arrays.copyOf(ioff, (n + 1) * k);
+            for (int i = 0; i < delta.length; i++)
+                inv[pos[delta[i] * k + i % k]++] = i / k;
+        }
+
+        private int run(int [] result) {
+
+            buildInverse(getDelta());
+
+            // initial partition: accepting and rejecting states
+            int p = 0;
+            for (int acc = 1; acc >= 0; acc--) {
+                int b = nblocks;
+                first[b] = p;
+                for (int q = 0; q <= n; q++) {
+                    boolean isAcc = q < n && dfa.isAccept(sparse[q]);
+                    if (isAcc == (acc == 1)) {
+                        elems[p] = q;
+                        loc[q] = p;
+                        block[q] = b;
+                        p++;
+                    }
+                }
+                last[b] = p;
+                if (last[b] > first[b])
+                    nblocks++;
+            }
+
+            int [] work = new int[n + 1];
+            boolean [] waiting = new boolean[n + 1];
+            int nwork = 0;
+
+            // with two blocks, refining by one of them suffices
+            int smaller = nblocks == 1 || last[0] - first[0] <= last[1] -
+                    first[1] ? 0 : 1;
+            work[nwork++] = smaller;
+            waiting[smaller] = true;
+
+            int [] splitter = new int[n + 1];
+            int [] touched = new int[n + 1];
+
+            while (nwork > 0) {
+
+                int b = work[--nwork];
+                waiting[b] = false;
+
+                int size = last[b] - first[b];
+                System.arraycopy(elems, first[b], splitter, 0, size);
+
+                for (int c = 0; c < k; c++) {
+
+                    int nt = 0;
+
+                    for (int i = 0; i < size; i++) {
+                        int q = splitter[i] * k + c;
+                        for (int j = ioff[q]; j < ioff[q + 1]; j++) {
+                            int r = inv[j];
+                            int x = block[r];
+                            if (marked[x] == 0)
+                                touched[nt++] = x;
+                            mark(r, x);
+                        }
+                    }
+
+                    for (int t = 0; t < nt; t++) {
+
+                        int x = touched[t];
+                        int m = marked[x];
+                        marked[x] = 0;
+
+                        if (m == last[x] - first[x])
+                            continue;
+
+                        // the marked states form a new block
+                        int y = nblocks++;
+                        first[y] = first[x];
+                        last[y] = first[x] + m;
+                        first[x] = last[y];
+
+                        for (int i = first[y]; i < last[y]; i++)
+                            block[elems[i]] = y;
+
+                        if (waiting[x] || last[y] - first[y] <= last[x] -
+                                first[x]) {
+                            work[nwork++] = y;
+                            waiting[y] = true;
+                        } else {
+                            work[nwork++] = x;
+                            waiting[x] = true;
+                        }
+                    }
+                }
+            }
+
+            for (int q = 0; q < n; q++)
+                result[sparse[q]] = block[q];
+
+            return nblocks;
+        }
+
+        /**
+         * Moves r to the marked front part of its block x.
+         */
+        private void mark(int r, int x) {
+            int i = loc[r];
+            int j = first[x] + marked[x];
+
+            if (i < j)
+                return;
+
+            int o = elems[j];
+            elems[j] = r;
+            loc[r] = j;
+            elems[i] = o;
+            loc[o] = i;
+            marked[x]++;
+        }
+    }
+}
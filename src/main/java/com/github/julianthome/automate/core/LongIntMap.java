@@ -0,0 +1,117 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to non-negative int values with open addressing and
+ * linear probing. Used for the pair and id lookups of the product
+ * constructions, which would otherwise box every key and value.
+ */
+final class LongIntMap {
+
+    private long [] keys;
+    // -1 marks a free slot
+    private int [] vals;
+    private int size = 0;
+
+    LongIntMap() {
+        this(16);
+    }
+
+    LongIntMap(int expected) {
+        int cap = 16;
+        while (cap < 2 * expected)
+            cap <<= 1;
+        keys = new long[cap];
+        vals = new int[cap];
+        Arrays.fill(vals, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value of key, or -1 if there is none
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); vals[i] >= 0; i = (i + 1) & mask) {
+            if (keys[i] == key)
+                return vals[i];
+        }
+        return -1;
+    }
+
+    /**
+     * @param val non-negative value
+     */
+    void put(long key, int val) {
+        assert val >= 0;
+
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; vals[i] >= 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                vals[i] = val;
+                return;
+            }
+        }
+
+        keys[i] = key;
+        vals[i] = val;
+
+        if (2 * ++size > keys.length)
+            rehash();
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long [] okeys = keys;
+        int [] ovals = vals;
+        keys = new long[2 * okeys.length];
+        vals = new int[2 * ovals.length];
+        Arrays.fill(vals, -1);
+
+        int mask = keys.length - 1;
+        for (int j = 0; j < okeys.length; j++) {
+            if (ovals[j] < 0)
+                continue;
+            int i = slot(okeys[j], mask);
+            while (vals[i] >= 0)
+                i = (i + 1) & mask;
+            keys[i] = okeys[j];
+            vals[i] = ovals[j];
+        }
+    }
+}
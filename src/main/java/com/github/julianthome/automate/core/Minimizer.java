@@ -0,0 +1,47 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+/**
+ * Strategy for {@link AbstractAutomaton#minimize()}. The operations of
+ * {@link BasicOperations} canonicalize their results with the strategy set
+ * by {@link BasicOperations#setMinimizer(Minimizer)}.
+ */
+public interface Minimizer {
+
+    /**
+     * Replaces the content of the given automaton by the minimal DFA of its
+     * language. States that are unreachable or cannot reach an accept state
+     * are dropped.
+     *
+     * @param a automaton, possibly nondeterministic
+     * @throws com.github.julianthome.automate.exception.BudgetExceededException
+     * if a determinization exceeds the budget set with
+     * {@link BasicOperations#setBudget(Budget)}; a is left unchanged then
+     */
+    void minimize(AbstractAutomaton<?> a);
+}
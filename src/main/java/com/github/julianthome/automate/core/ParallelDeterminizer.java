@@ -0,0 +1,385 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Subset construction that expands DFA states concurrently. States are
+ * processed in windows of consecutive ids: the successor subsets of all
+ * states of a window are computed by fork/join tasks, which also resolve
+ * subsets that are known already through a concurrent map. New subsets
+ * are then numbered by a single thread in the order of the states and
+ * their transitions, i.e. in the order in which {@link Determinizer}
+ * discovers them, so the result is identical to the sequential one.
+ */
+final class ParallelDeterminizer {
+
+    // windows bound the memory held by pending expansions
+    private static final int WINDOW = 4096;
+
+    // below this number of states, a task does not split any further
+    private static final int MIN_SLICE = 32;
+
+    private final DenseNfa nfa;
+    private final int [][] closures;
+    private final AlphabetPartition classes;
+
+    // first and last class of every NFA transition
+    private final int [] clo;
+    private final int [] chi;
+
+    // interned subsets; the index is the id of the DFA state
+    private final List<int []> sets = new ArrayList<>();
+    private final Map<SetKey, Integer> ids = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Scratch> scratch;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Sorted subset with a cached hash code.
+     */
+    private static final class SetKey {
+
+        final int [] set;
+        private final int hash;
+
+        SetKey(int [] set) {
+            this.set = set;
+            this.hash = Arrays.hashCode(set);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SetKey && Arrays.equals(set, ((SetKey) o)
+                    .set);
+        }
+    }
+
+    /**
+     * Per-thread space for collecting subsets.
+     */
+    private static final class Scratch {
+        final int [] stamp;
+        final int [] buf;
+        int gen = 0;
+        int [] active = new int[16];
+        long [] order = new long[16];
+
+        Scratch(int n) {
+            stamp = new int[n];
+            buf = new int[n];
+        }
+    }
+
+    /**
+     * The successors of one DFA state: the i-th elementary class interval
+     * leads to keys[i], whose id is known[i] or -1 if it was not interned
+     * when the state was expanded.
+     */
+    private static final class Expansion {
+        int size = 0;
+        int [] lo = new int[4];
+        int [] hi = new int[4];
+        int [] known = new int[4];
+        SetKey [] keys = new SetKey[4];
+
+        void add(int l, int h, int id, SetKey key) {
+            if (size == lo.length) {
+                lo = Arrays.copyOf(lo, 2 * size);
+                hi = Arrays.copyOf(hi, 2 * size);
+                known = Arrays.copyOf(known, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size);
+            }
+            lo[size] = l;
+            hi[size] = h;
+            known[size] = id;
+            keys[size] = key;
+            size++;
+        }
+    }
+
+    private final class Slice extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int base;
+        private final Expansion [] out;
+
+        Slice(int from, int to, int base, Expansion [] out) {
+            this.from = from;
+            this.to = to;
+            this.base = base;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_SLICE) {
+                Scratch sc = scratch.get();
+                for (int id = from; id < to; id++)
+                    out[id - base] = expand(sets.get(id), sc);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(from, mid, base, out), new Slice(mid, to,
+                    base, out));
+        }
+    }
+
+    ParallelDeterminizer(DenseNfa nfa, ForkJoinPool pool) {
+        this.nfa = nfa;
+        this.pool = pool;
+        this.closures = nfa.getClosures();
+        this.classes = AlphabetPartition.of(nfa);
+
+        int n = nfa.getTransitionCount();
+        this.clo = new int[n];
+        this.chi = new int[n];
+        for (int k = 0; k < n; k++) {
+            clo[k] = classes.classOf(nfa.getMin(k));
+            chi[k] = classes.classOf(nfa.getMax(k));
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(nfa.size()));
+    }
+
+    /**
+     * @return the DFA of the snapshot, or null if it would have more than
+     * limit states
+     * @throws com.github.julianthome.automate.exception.BudgetExceededException
+     * if the DFA exceeds the budget of the meter
+     */
+    DenseNfa run(int limit, Budget.Meter meter) {
+
+        DenseNfa.Builder dfa = new DenseNfa.Builder();
+
+        Scratch sc = scratch.get();
+        int g = ++sc.gen;
+        int cnt = 0;
+        for (int s : nfa.getInitial()) {
+            for (int t : closures[s]) {
+                if (sc.stamp[t] != g) {
+                    sc.stamp[t] = g;
+                    sc.buf[cnt++] = t;
+                }
+            }
+        }
+        int [] init = Arrays.copyOf(sc.buf, cnt);
+        Arrays.sort(init);
+        sets.add(init);
+        ids.put(new SetKey(init), 0);
+        dfa.addState(isAccept(init));
+
+        for (int from = 0; from < sets.size(); ) {
+
+            int to = Math.min(sets.size(), from + WINDOW);
+            Expansion [] exp = new Expansion[to - from];
+
+            if (to - from <= MIN_SLICE) {
+                for (int id = from; id < to; id++)
+                    exp[id - from] = expand(sets.get(id), sc);
+            } else {
+                pool.invoke(new Slice(from, to, from, exp));
+            }
+
+            for (int id = from; id < to; id++) {
+                if (!commit(id, exp[id - from], dfa, limit))
+                    return null;
+                meter.check(dfa.size(), dfa.getTransitionCount());
+            }
+
+            from = to;
+        }
+
+        return dfa.build(0);
+    }
+
+    /**
+     * Sweeps over the class intervals of the transitions leaving the given
+     * subset and collects the successor subset of every elementary interval.
+     */
+    private Expansion expand(int [] set, Scratch sc) {
+
+        Expansion ret = new Expansion();
+
+        int ntrans = 0;
+        for (int s : set)
+            ntrans += nfa.getLastTransition(s) - nfa.getFirstTransition(s);
+
+        if (ntrans == 0)
+            return ret;
+
+        if (sc.order.length < ntrans) {
+            sc.order = new long[2 * ntrans];
+            sc.active = new int[2 * ntrans];
+        }
+
+        long [] order = sc.order;
+        int [] active = sc.active;
+        int [] pts = new int[2 * ntrans];
+        int np = 0;
+        int no = 0;
+
+        for (int s : set) {
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+                order[no++] = (long) clo[k] << 32 | k;
+                pts[np++] = clo[k];
+                pts[np++] = chi[k] + 1;
+            }
+        }
+
+        Arrays.sort(order, 0, no);
+        Arrays.sort(pts, 0, np);
+
+        int na = 0;
+        int next = 0;
+
+        for (int i = 0; i < np; i++) {
+
+            int lo = pts[i];
+
+            if (i + 1 < np && pts[i + 1] == lo)
+                continue;
+
+            if (i + 1 == np)
+                break;
+
+            int hi = pts[i + 1] - 1;
+
+            // drop transitions ending before lo, add those starting at lo
+            int w = 0;
+            for (int a = 0; a < na; a++) {
+                if (chi[active[a]] >= lo)
+                    active[w++] = active[a];
+            }
+            na = w;
+            while (next < no && (int) (order[next] >>> 32) == lo)
+                active[na++] = (int) order[next++];
+
+            if (na == 0)
+                continue;
+
+            int g = ++sc.gen;
+            int cnt = 0;
+            for (int a = 0; a < na; a++) {
+                for (int t : closures[nfa.getTarget(active[a])]) {
+                    if (sc.stamp[t] != g) {
+                        sc.stamp[t] = g;
+                        sc.buf[cnt++] = t;
+                    }
+                }
+            }
+
+            int [] succ = Arrays.copyOf(sc.buf, cnt);
+            Arrays.sort(succ);
+            SetKey key = new SetKey(succ);
+            Integer id = ids.get(key);
+
+            ret.add(lo, hi, id == null ? -1 : id, key);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Interns the new successors of a state and emits its transitions; runs
+     * on a single thread in ascending order of the state ids.
+     *
+     * @return false if the state limit was exceeded
+     */
+    private boolean commit(int cur, Expansion exp, DenseNfa.Builder dfa, int
+            limit) {
+
+        // pending transition that is extended while targets agree
+        int ptarget = -1;
+        int plo = 0;
+        int phi = 0;
+
+        for (int i = 0; i < exp.size; i++) {
+
+            int target = exp.known[i];
+
+            if (target < 0) {
+                Integer id = ids.get(exp.keys[i]);
+                if (id == null) {
+                    target = sets.size();
+                    if (target == limit)
+                        return false;
+                    sets.add(exp.keys[i].set);
+                    ids.put(exp.keys[i], target);
+                    dfa.addState(isAccept(exp.keys[i].set));
+                } else {
+                    target = id;
+                }
+            }
+
+            int lo = exp.lo[i];
+            int hi = exp.hi[i];
+
+            if (target == ptarget && phi + 1 == lo) {
+                phi = hi;
+                continue;
+            }
+
+            if (ptarget >= 0)
+                dfa.addTransition(cur, classes.getMin(plo), classes.getMax
+                        (phi), ptarget);
+
+            ptarget = target;
+            plo = lo;
+            phi = hi;
+        }
+
+        if (ptarget >= 0)
+            dfa.addTransition(cur, classes.getMin(plo), classes.getMax(phi),
+                    ptarget);
+
+        return true;
+    }
+
+    private boolean isAccept(int [] set) {
+        for (int s : set) {
+            if (nfa.isAccept(s))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Revuz' linear-time minimization of acyclic DFAs. States are visited in
+ * ascending order of their height, i.e. the length of the longest path to
+ * a state without successors; a state is equivalent to an already visited
+ * one iff both agree in acceptance and in their labels and target blocks.
+ * Falls back to {@link ValmariMinimizer} if the automaton has a cycle.
+ */
+public class RevuzMinimizer extends AbstractMinimizer {
+
+    private final AbstractMinimizer fallback = new ValmariMinimizer();
+
+    @Override
+    protected int partition(DenseNfa dfa, boolean [] live, int [] block) {
+
+        int [] height = getHeights(dfa, live);
+
+        if (height == null)
+            return fallback.partition(dfa, live, block);
+
+        int n = dfa.size();
+        int maxh = 0;
+        for (int s = 0; s < n; s++) {
+            if (live[s])
+                maxh = Math.max(maxh, height[s]);
+        }
+
+        // bucket the live states by height
+        int [] hoff = new int[maxh + 2];
+        for (int s = 0; s < n; s++) {
+            if (live[s])
+                hoff[height[s] + 1]++;
+        }
+        for (int h = 0; h <= maxh; h++)
+            hoff[h + 1] += hoff[h];
+
+        int [] order = new int[hoff[maxh + 1]];
+        int [] pos = Arrays.copyOf(hoff, maxh + 1);
+        for (int s = 0; s < n; s++) {
+            if (live[s])
+                order[pos[height[s]]++] = s;
+        }
+
+        Map<Signature, Integer> blocks = new HashMap<>();
+        int [] sig = new int[1 + 3 * dfa.getTransitionCount()];
+
+        for (int s : order) {
+
+            // acceptance followed by the merged (min, max, block) triples
+            int len = 0;
+            sig[len++] = dfa.isAccept(s) ? 1 : 0;
+
+            for (int t = dfa.getFirstTransition(s); t < dfa
+                    .getLastTransition(s); t++) {
+
+                if (!live[dfa.getTarget(t)])
+                    continue;
+
+                int b = block[dfa.getTarget(t)];
+
+                if (len > 1 && sig[len - 1] == b && sig[len - 2] + 1 == dfa
+                        .getMin(t)) {
+                    sig[len - 2] = dfa.getMax(t);
+                    continue;
+                }
+
+                sig[len++] = dfa.getMin(t);
+                sig[len++] = dfa.getMax(t);
+                sig[len++] = b;
+            }
+
+            Signature key = new Signature(Arrays.copyOf(sig, len));
+            Integer b = blocks.get(key);
+
+            if (b == null) {
+                b = blocks.size();
+                blocks.put(key, b);
+            }
+
+            block[s] = b;
+        }
+
+        return blocks.size();
+    }
+
+    private static final class Signature {
+
+        private final int [] val;
+        private final int hash;
+
+        private Signature(int [] val) {
+            this.val = val;
+            this.hash = Arrays.hashCode(val);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature && Arrays.equals(val, ((Signature)
+                    o).val);
+        }
+    }
+}
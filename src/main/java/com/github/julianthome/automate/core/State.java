@@ -84,5 +84,14 @@ public class State implements DotSerializer {
         return this.id == s.id;
     }
 
+    /**
+     * States are identified by their id, which is unique within an
+     * automaton.
+     */
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
 
 }
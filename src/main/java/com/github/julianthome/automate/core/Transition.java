@@ -51,13 +51,13 @@ public class Transition extends DefaultEdge implements DotSerializer,
     public Transition(State src, State tar, char min, char max) {
         this.src = src;
         this.tar = tar;
-        this.lbl = new CharRange(min, max);
+        this.lbl = CharRange.of(min, max);
     }
 
     public Transition(State src, State tar) {
         this.src = src;
         this.tar = tar;
-        this.lbl = new Epsilon();
+        this.lbl = Epsilon.EPSILON;
     }
 
 
@@ -94,7 +94,7 @@ public class Transition extends DefaultEdge implements DotSerializer,
     }
 
     public Transition clone() {
-        return new Transition(src.clone(), tar.clone(), lbl.clone());
+        return new Transition(src.clone(), tar.clone(), lbl);
     }
 
 
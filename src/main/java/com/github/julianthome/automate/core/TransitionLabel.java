@@ -49,6 +49,9 @@ public interface TransitionLabel extends DotSerializer, Cloneable,
     @Override
     int hashCode();
 
+    /**
+     * Labels are immutable, so implementations may return themselves.
+     */
     TransitionLabel clone();
 
     int compareTo(TransitionLabel lbl);
@@ -0,0 +1,277 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.Arrays;
+
+/**
+ * The partition refinement of Valmari and Lehtinen, "Efficient minimization
+ * of DFAs with partial transition functions", which runs in O(m log n) for
+ * m transitions. States and transitions (cords) are refined against each
+ * other, and no dead state or completed table is needed, so memory stays
+ * linear in the size of the automaton even for large alphabets.
+ */
+public class ValmariMinimizer extends AbstractMinimizer {
+
+    @Override
+    protected int partition(DenseNfa dfa, boolean [] live, int [] block) {
+        return new Refinement(dfa, live).run(block);
+    }
+
+    /**
+     * A refinable partition of the elements 0..n-1. The elements of set s
+     * are elems[first[s]..past[s]-1], the marked ones come first.
+     */
+    private static final class Sets {
+
+        private int count;
+        private final int [] elems;
+        private final int [] loc;
+        private final int [] set;
+        private final int [] first;
+        private final int [] past;
+        private final int [] marked;
+
+        // sets with marked elements
+        private final int [] touched;
+        private int ntouched = 0;
+
+        private Sets(int n) {
+            this.count = n > 0 ? 1 : 0;
+            this.elems = new int[n];
+            this.loc = new int[n];
+            this.set = new int[n];
+            this.first = new int[n + 1];
+            this.past = new int[n + 1];
+            this.marked = new int[n + 1];
+            this.touched = new int[n + 1];
+
+            for (int i = 0; i < n; i++) {
+                elems[i] = i;
+                loc[i] = i;
+            }
+            past[0] = n;
+        }
+
+        private void mark(int e) {
+            int s = set[e];
+            int i = loc[e];
+            int j = first[s] + marked[s];
+
+            if (i < j)
+                return;
+
+            elems[i] = elems[j];
+            loc[elems[i]] = i;
+            elems[j] = e;
+            loc[e] = j;
+
+            if (marked[s]++ == 0)
+                touched[ntouched++] = s;
+        }
+
+        /**
+         * Splits every touched set into its marked and unmarked part; the
+         * smaller part gets the new set id.
+         */
+        private void split() {
+            while (ntouched > 0) {
+                int s = touched[--ntouched];
+                int j = first[s] + marked[s];
+
+                if (j == past[s]) {
+                    marked[s] = 0;
+                    continue;
+                }
+
+                int z = count++;
+
+                if (marked[s] <= past[s] - j) {
+                    first[z] = first[s];
+                    past[z] = j;
+                    first[s] = j;
+                } else {
+                    past[z] = past[s];
+                    first[z] = j;
+                    past[s] = j;
+                }
+
+                for (int i = first[z]; i < past[z]; i++)
+                    set[elems[i]] = z;
+
+                marked[s] = 0;
+                marked[z] = 0;
+            }
+        }
+    }
+
+    private static final class Refinement {
+
+        private final int n;
+        private final int m;
+        private final int [] sparse;
+
+        // tail, class label and head of every transition
+        private final int [] tail;
+        private final int [] label;
+        private final int [] head;
+
+        private final boolean [] accept;
+
+        private Refinement(DenseNfa dfa, boolean [] live) {
+
+            AlphabetPartition classes = AlphabetPartition.of(dfa);
+
+            int [] dense = new int[dfa.size()];
+            int [] sp = new int[dfa.size()];
+            int cnt = 0;
+            int cords = 0;
+
+            for (int s = 0; s < dfa.size(); s++) {
+                dense[s] = live[s] ? cnt : -1;
+                if (!live[s])
+                    continue;
+                sp[cnt++] = s;
+                for (int k = dfa.getFirstTransition(s); k < dfa
+                        .getLastTransition(s); k++) {
+                    if (live[dfa.getTarget(k)])
+                        cords += classes.classOf(dfa.getMax(k)) - classes
+                                .classOf(dfa.getMin(k)) + 1;
+                }
+            }
+
+            this.n = cnt;
+            this.m = cords;
+            this.sparse = Arrays.copyOf(sp, n);
+            this.tail = new int[m];
+            this.label = new int[m];
+            this.head = new int[m];
+            this.accept = new boolean[n];
+
+            int t = 0;
+            for (int q = 0; q < n; q++) {
+                int s = sparse[q];
+                accept[q] = dfa.isAccept(s);
+                for (int k = dfa.getFirstTransition(s); k < dfa
+                        .getLastTransition(s); k++) {
+                    int tar = dense[dfa.getTarget(k)];
+                    if (tar < 0)
+                        continue;
+                    for (int c = classes.classOf(dfa.getMin(k)); c <= classes
+                            .classOf(dfa.getMax(k)); c++) {
+                        tail[t] = q;
+                        label[t] = c;
+                        head[t] = tar;
+                        t++;
+                    }
+                }
+            }
+        }
+
+        private int run(int [] result) {
+
+            Sets blocks = new Sets(n);
+
+            // initial partition: accepting and rejecting states
+            for (int q = 0; q < n; q++) {
+                if (accept[q])
+                    blocks.mark(q);
+            }
+            blocks.split();
+
+            // initial cords: transitions grouped by label
+            Sets cords = new Sets(m);
+            if (m > 0) {
+                int k = 0;
+                for (int t = 0; t < m; t++)
+                    k = Math.max(k, label[t] + 1);
+
+                // counting sort by label
+                int [] loff = new int[k + 1];
+                for (int t = 0; t < m; t++)
+                    loff[label[t] + 1]++;
+                for (int l = 0; l < k; l++)
+                    loff[l + 1] += loff[l];
+
+                int [] lpos = Arrays.copyOf(loff, k);
+                for (int t = 0; t < m; t++) {
+                    int i = lpos[label[t]]++;
+                    cords.elems[i] = t;
+                    cords.loc[t] = i;
+                }
+
+                cords.count = 0;
+                for (int l = 0; l < k; l++) {
+                    if (loff[l] == loff[l + 1])
+                        continue;
+                    int z = cords.count++;
+                    cords.first[z] = loff[l];
+                    cords.past[z] = loff[l + 1];
+                    for (int i = loff[l]; i < loff[l + 1]; i++)
+                        cords.set[cords.elems[i]] = z;
+                }
+            }
+
+            // incoming transitions of every state
+            int [] ioff = new int[n + 1];
+            int [] in = new int[m];
+            for (int t = 0; t < m; t++)
+                ioff[head[t] + 1]++;
+            for (int q = 0; q < n; q++)
+                ioff[q + 1] += ioff[q];
+            int [] pos = Arrays.copyOf(ioff, n);
+            for (int t = 0; t < m; t++)
+                in[pos[head[t]]++] = t;
+
+            int b = 1;
+            int c = 0;
+
+            while (c < cords.count) {
+
+                for (int i = cords.first[c]; i < cords.past[c]; i++)
+                    blocks.mark(tail[cords.elems[i]]);
+                blocks.split();
+                c++;
+
+                while (b < blocks.count) {
+                    for (int i = blocks.first[b]; i < blocks.past[b]; i++) {
+                        int q = blocks.elems[i];
+                        for (int j = ioff[q]; j < ioff[q + 1]; j++)
+                            cords.mark(in[j]);
+                    }
+                    cords.split();
+                    b++;
+                }
+            }
+
+            for (int q = 0; q < n; q++)
+                result[sparse[q]] = blocks.set[q];
+
+            return blocks.count;
+        }
+    }
+}
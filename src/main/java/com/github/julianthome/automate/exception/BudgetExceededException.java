@@ -0,0 +1,93 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.exception;
+
+/**
+ * Thrown if an operation exceeds the budget set with
+ * {@code BasicOperations.setBudget}. It reports how far the operation got.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    public enum Resource {
+        STATES,
+        TRANSITIONS,
+        TIME
+    }
+
+    private final String operation;
+    private final Resource resource;
+    private final long limit;
+    private final int states;
+    private final int transitions;
+    private final long millis;
+
+    public BudgetExceededException(String operation, Resource resource, long
+            limit, int states, int transitions, long millis) {
+        super(operation + " exceeded the " + resource.name().toLowerCase() +
+                " budget of " + limit + " (states: " + states + ", " +
+                "transitions: " + transitions + ", time: " + millis + " ms)");
+        this.operation = operation;
+        this.resource = resource;
+        this.limit = limit;
+        this.states = states;
+        this.transitions = transitions;
+        this.millis = millis;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of states built when the budget was exceeded
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * @return the number of transitions built when the budget was exceeded
+     */
+    public int getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * @return the time spent in the operation in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+}
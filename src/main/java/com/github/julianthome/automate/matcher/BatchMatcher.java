@@ -0,0 +1,126 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Matches batches of inputs in parallel. The batch is cut into chunks whose
+ * boundaries are multiples of 64 so that every chunk owns a disjoint range
+ * of words of the result bitset; workers hence never contend for a word.
+ * Every chunk obtains one worker (and thereby its scratch state) and reuses
+ * it for all of its items.
+ */
+final class BatchMatcher {
+
+    /**
+     * Matches single items; a worker is only used by one thread at a time.
+     */
+    interface Worker {
+        boolean matches(CharSequence s);
+    }
+
+    // below this number of items per chunk, splitting does not pay off
+    private static final int MIN_CHUNK = 1024;
+
+    private BatchMatcher() {
+    }
+
+    static BitSet matchAll(List<? extends CharSequence> items,
+                           Supplier<? extends Worker> workers,
+                           Executor executor) {
+        if (items instanceof RandomAccess)
+            return matchAll(items, items.size(), workers, executor);
+
+        return matchAll(items.toArray(new CharSequence[0]), workers, executor);
+    }
+
+    static BitSet matchAll(CharSequence [] items,
+                           Supplier<? extends Worker> workers,
+                           Executor executor) {
+        return matchAll(Arrays.asList(items), items.length, workers,
+                executor);
+    }
+
+    private static BitSet matchAll(List<? extends CharSequence> items, int n,
+                                   Supplier<? extends Worker> workers,
+                                   Executor executor) {
+
+        long [] words = new long[(n + 63) >>> 6];
+
+        int parallelism = executor instanceof ForkJoinPool ? (
+                (ForkJoinPool) executor).getParallelism() : Runtime
+                .getRuntime().availableProcessors();
+
+        // a few chunks per thread to even out skewed item lengths
+        int chunk = Math.max(MIN_CHUNK, n / (4 * parallelism) + 1);
+        chunk = (chunk + 63) & ~63;
+
+        if (n <= chunk || parallelism < 2) {
+            match(items, 0, n, workers.get(), words);
+            return BitSet.valueOf(words);
+        }
+
+        CompletableFuture<?> [] tasks = new CompletableFuture<?>[(n + chunk
+                - 1) / chunk];
+
+        for (int c = 0; c < tasks.length; c++) {
+            int from = c * chunk;
+            int to = Math.min(n, from + chunk);
+            tasks[c] = CompletableFuture.runAsync(() -> match(items, from,
+                    to, workers.get(), words), executor);
+        }
+
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+
+        return BitSet.valueOf(words);
+    }
+
+    private static void match(List<? extends CharSequence> items, int from,
+                              int to, Worker w, long [] words) {
+        for (int i = from; i < to; i++) {
+            if (w.matches(items.get(i)))
+                words[i >>> 6] |= 1L << i;
+        }
+    }
+}
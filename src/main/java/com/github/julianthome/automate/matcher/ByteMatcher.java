@@ -0,0 +1,103 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matches UTF-8 encoded input without decoding it. The automaton is
+ * translated to an equivalent one over bytes, determinized and stored as a
+ * full 256-column transition table. Malformed UTF-8 is never accepted.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ByteMatcher {
+
+    private static final int DEAD = CompiledMatcher.DEAD;
+
+    private final int start;
+    private final boolean [] accept;
+    private final int [] table;
+
+    private ByteMatcher(CompiledMatcher m) {
+        int n = m.getStateCount();
+
+        this.start = m.getStart();
+        this.accept = new boolean[n];
+        this.table = new int[n << 8];
+
+        for (int s = 0; s < n; s++) {
+            accept[s] = m.isAccept(s);
+            for (int b = 0; b < 256; b++)
+                table[(s << 8) | b] = m.step(s, (char) b);
+        }
+    }
+
+    public static ByteMatcher compile(AbstractAutomaton<?> a) {
+        return new ByteMatcher(DfaCompiler.compile(Utf8Compiler.compile
+                (DenseNfa.of(a))));
+    }
+
+    public boolean matches(byte [] b) {
+        return matches(b, 0, b.length);
+    }
+
+    public boolean matches(byte [] b, int off, int len) {
+
+        int st = start;
+
+        for (int i = off, end = off + len; i < end && st != DEAD; i++)
+            st = table[(st << 8) | (b[i] & 0xFF)];
+
+        return st != DEAD && accept[st];
+    }
+
+    /**
+     * Matches the remaining bytes of the buffer, which may be a
+     * memory-mapped region. The position of the buffer is not modified.
+     */
+    public boolean matches(ByteBuffer buf) {
+
+        if (buf.hasArray())
+            return matches(buf.array(), buf.arrayOffset() + buf.position(),
+                    buf.remaining());
+
+        int st = start;
+
+        for (int i = buf.position(), end = buf.limit(); i < end && st !=
+                DEAD; i++)
+            st = table[(st << 8) | (buf.get(i) & 0xFF)];
+
+        return st != DEAD && accept[st];
+    }
+
+    public int getStateCount() {
+        return accept.length;
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.AlphabetPartition;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A deterministic automaton frozen into primitive arrays. For every state,
+ * the outgoing ranges are stored as sorted, disjoint [min,max] pairs
+ * together with the id of their target state; characters not covered by
+ * any range lead to the (implicit) dead state. Unless the automaton is very
+ * large, transitions are additionally laid out as a dense table indexed by
+ * state and alphabet class, so that a step is a table lookup instead of a
+ * binary search. Instances are immutable and can be shared between threads.
+ */
+public final class CompiledMatcher {
+
+    static final int DEAD = -1;
+
+    // upper bound for the number of entries of the dense table
+    private static final int MAX_TABLE = 1 << 22;
+
+    private final int start;
+    private final boolean [] accept;
+    private final int [] offsets;
+    private final char [] mins;
+    private final char [] maxs;
+    private final int [] targets;
+
+    // dense table, null if it would exceed MAX_TABLE
+    private final AlphabetPartition classes;
+    private final int [] table;
+
+    // prefilter, null if the language has no required literals
+    private final RequiredLiterals literals;
+
+    /**
+     * @param classes a partition that no range crosses
+     */
+    CompiledMatcher(int start, boolean [] accept, int [] offsets, char []
+            mins, char [] maxs, int [] targets, AlphabetPartition classes) {
+        this.start = start;
+        this.accept = accept;
+        this.offsets = offsets;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.targets = targets;
+        this.literals = null;
+
+        int k = classes.getClassCount();
+
+        if ((long) accept.length * k > MAX_TABLE) {
+            this.classes = null;
+            this.table = null;
+            return;
+        }
+
+        this.classes = classes;
+        this.table = new int[accept.length * k];
+
+        Arrays.fill(table, DEAD);
+
+        for (int s = 0; s < accept.length; s++) {
+            for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                for (int c = classes.classOf(mins[i]); c <= classes.classOf
+                        (maxs[i]); c++)
+                    table[s * k + c] = targets[i];
+            }
+        }
+    }
+
+    private CompiledMatcher(CompiledMatcher m, RequiredLiterals literals) {
+        this.start = m.start;
+        this.accept = m.accept;
+        this.offsets = m.offsets;
+        this.mins = m.mins;
+        this.maxs = m.maxs;
+        this.targets = m.targets;
+        this.classes = m.classes;
+        this.table = m.table;
+        this.literals = literals;
+    }
+
+    public static CompiledMatcher compile(AbstractAutomaton<?> a) {
+        DenseNfa nfa = DenseNfa.of(a);
+        CompiledMatcher m = DfaCompiler.compile(nfa);
+        RequiredLiterals lits = RequiredLiterals.of(nfa);
+
+        if (lits.isTrivial())
+            return m;
+
+        return new CompiledMatcher(m, lits);
+    }
+
+    public boolean matches(CharSequence s) {
+
+        // reject by string scanning before running the automaton
+        if (literals != null && !literals.mayMatch(s))
+            return false;
+
+        int st = run(s);
+        return st != DEAD && accept[st];
+    }
+
+    /**
+     * Matches all items of a batch in parallel on the common fork/join pool.
+     * Compiling is the expensive part, so an automaton is compiled once with
+     * {@link AbstractAutomaton#compile()} and its matcher is kept for all
+     * batches.
+     *
+     * @param items inputs to match
+     * @return bitset in which bit i is set iff items[i] is accepted
+     */
+    public BitSet matchAll(List<? extends CharSequence> items) {
+        return matchAll(items, ForkJoinPool.commonPool());
+    }
+
+    public BitSet matchAll(List<? extends CharSequence> items, Executor
+            executor) {
+        return BatchMatcher.matchAll(items, () -> this::matches, executor);
+    }
+
+    public BitSet matchAll(CharSequence [] items) {
+        return matchAll(items, ForkJoinPool.commonPool());
+    }
+
+    public BitSet matchAll(CharSequence [] items, Executor executor) {
+        return BatchMatcher.matchAll(items, () -> this::matches, executor);
+    }
+
+    /**
+     * @return the state reached after consuming s from the start state
+     */
+    int run(CharSequence s) {
+
+        int st = start;
+
+        for (int i = 0, len = s.length(); i < len && st != DEAD; i++)
+            st = step(st, s.charAt(i));
+
+        return st;
+    }
+
+    public MatchCursor cursor() {
+        return new MatchCursor(this);
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    boolean isAccept(int state) {
+        return accept[state];
+    }
+
+    int step(int state, char c) {
+
+        if (table != null)
+            return table[state * classes.getClassCount() + classes.classOf(c)];
+
+        int lo = offsets[state];
+        int hi = offsets[state + 1] - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (c < mins[mid])
+                hi = mid - 1;
+            else if (c > maxs[mid])
+                lo = mid + 1;
+            else
+                return targets[mid];
+        }
+
+        return DEAD;
+    }
+
+    public int getStateCount() {
+        return accept.length;
+    }
+
+    public int getTransitionCount() {
+        return targets.length;
+    }
+}
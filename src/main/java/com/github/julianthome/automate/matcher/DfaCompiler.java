@@ -0,0 +1,335 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AlphabetPartition;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.*;
+
+/**
+ * Emits the flat transition tables of a {@link CompiledMatcher}. Plain
+ * matchers are laid out from {@link DenseNfa#determinize()}; subclasses run
+ * their own construction over a {@link DenseNfa}, in which DFA states are
+ * identified by int array keys whose interpretation is up to the concrete
+ * compiler. Outgoing ranges of every DFA state are disjoint and sorted;
+ * states from which no accept state is reachable are dropped so that
+ * matching can stop early.
+ */
+abstract class DfaCompiler {
+
+    protected final DenseNfa nfa;
+    private final StateSets sets;
+
+    private final Map<IntArrayKey, Integer> ids = new HashMap<>();
+    private final List<int []> keys = new ArrayList<>();
+
+    private int [] offsets = new int[16];
+    private char [] mins = new char[16];
+    private char [] maxs = new char[16];
+    private int [] targets = new int[16];
+    private int ntrans = 0;
+
+    protected DfaCompiler(DenseNfa nfa) {
+        this.nfa = nfa;
+        this.sets = new StateSets(nfa);
+    }
+
+    static CompiledMatcher compile(DenseNfa nfa) {
+        return layout(nfa.determinize(), null);
+    }
+
+    /**
+     * Lays out a DFA whose initial state is 0.
+     *
+     * @param origin if not null, receives for every state of the matcher
+     * the DFA state it was laid out from; needs room for all DFA states
+     */
+    static CompiledMatcher layout(DenseNfa dfa, int [] origin) {
+
+        int n = dfa.size();
+        int ntrans = dfa.getTransitionCount();
+
+        boolean [] accept = new boolean[n];
+        int [] offsets = new int[n + 1];
+        char [] mins = new char[ntrans];
+        char [] maxs = new char[ntrans];
+        int [] targets = new int[ntrans];
+
+        for (int s = 0; s < n; s++) {
+            accept[s] = dfa.isAccept(s);
+            offsets[s] = dfa.getFirstTransition(s);
+        }
+        offsets[n] = ntrans;
+
+        for (int k = 0; k < ntrans; k++) {
+            mins[k] = dfa.getMin(k);
+            maxs[k] = dfa.getMax(k);
+            targets[k] = dfa.getTarget(k);
+        }
+
+        int [] nid = getLiveIds(accept, offsets, targets);
+
+        if (origin != null) {
+            for (int s = 0; s < n; s++) {
+                if (nid[s] >= 0)
+                    origin[nid[s]] = s;
+            }
+        }
+
+        return build(nid, accept, offsets, mins, maxs, targets,
+                AlphabetPartition.of(dfa));
+    }
+
+    /**
+     * @return the key of the initial DFA state
+     */
+    protected abstract int [] initial();
+
+    /**
+     * @return the NFA states whose outgoing transitions leave the DFA state
+     */
+    protected abstract int [] members(int [] key);
+
+    protected abstract int [] successor(int [] key, char c);
+
+    /**
+     * @return true if characters that are not covered by any transition of
+     * the members may still lead to a live state
+     */
+    protected boolean isTotal(int [] key) {
+        return false;
+    }
+
+    protected boolean isAccept(int [] key) {
+        return sets.isAccept(members(key));
+    }
+
+    protected int [] closure(int [] states) {
+        return sets.closure(states);
+    }
+
+    protected int [] step(int [] states, char c) {
+        return sets.step(states, c);
+    }
+
+    private int getId(int [] key) {
+        IntArrayKey k = new IntArrayKey(key);
+        Integer id = ids.get(k);
+        if (id == null) {
+            id = keys.size();
+            ids.put(k, id);
+            keys.add(key);
+        }
+        return id;
+    }
+
+    private void emit(char lo, char hi, int tar) {
+        if (ntrans == mins.length) {
+            int len = ntrans * 2;
+            mins = Arrays.copyOf(mins, len);
+            maxs = Arrays.copyOf(maxs, len);
+            targets = Arrays.copyOf(targets, len);
+        }
+        mins[ntrans] = lo;
+        maxs[ntrans] = hi;
+        targets[ntrans] = tar;
+        ntrans++;
+    }
+
+    CompiledMatcher run() {
+
+        getId(initial());
+
+        boolean [] accept = new boolean[16];
+
+        for (int d = 0; d < keys.size(); d++) {
+
+            int [] key = keys.get(d);
+            int [] members = members(key);
+
+            if (d + 1 >= offsets.length)
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            if (d >= accept.length)
+                accept = Arrays.copyOf(accept, accept.length * 2);
+
+            offsets[d] = ntrans;
+            accept[d] = isAccept(key);
+
+            int cnt = 0;
+            for (int s : members)
+                cnt += nfa.getLastTransition(s) - nfa.getFirstTransition(s);
+
+            // boundaries of the elementary intervals
+            int [] pts = new int[2 * cnt + 2];
+            int p = 0;
+
+            if (isTotal(key)) {
+                pts[p++] = Character.MIN_VALUE;
+                pts[p++] = Character.MAX_VALUE + 1;
+            }
+
+            for (int s : members) {
+                for (int k = nfa.getFirstTransition(s); k < nfa
+                        .getLastTransition(s); k++) {
+                    pts[p++] = nfa.getMin(k);
+                    pts[p++] = nfa.getMax(k) + 1;
+                }
+            }
+
+            Arrays.sort(pts, 0, p);
+
+            for (int i = 0; i + 1 < p; i++) {
+
+                int lo = pts[i];
+                int hi = pts[i + 1] - 1;
+
+                if (hi < lo)
+                    continue;
+
+                int [] nxt = successor(key, (char) lo);
+
+                if (nxt == null)
+                    continue;
+
+                int tar = getId(nxt);
+
+                if (ntrans > offsets[d] && targets[ntrans - 1] == tar &&
+                        maxs[ntrans - 1] + 1 == lo) {
+                    maxs[ntrans - 1] = (char) hi;
+                } else {
+                    emit((char) lo, (char) hi, tar);
+                }
+            }
+        }
+
+        int n = keys.size();
+        offsets[n] = ntrans;
+        accept = Arrays.copyOf(accept, n);
+
+        return build(getLiveIds(accept, offsets, targets), accept, offsets,
+                mins, maxs, targets, AlphabetPartition.of(nfa));
+    }
+
+    /**
+     * Numbers the states from which an accept state is reachable.
+     *
+     * @return the new id of every state, or -1 if the state is dropped
+     */
+    private static int [] getLiveIds(boolean [] accept, int [] offsets, int
+            [] targets) {
+
+        int n = accept.length;
+        int ntrans = offsets[n];
+
+        int [] roff = new int[n + 1];
+        for (int k = 0; k < ntrans; k++)
+            roff[targets[k] + 1]++;
+        for (int i = 0; i < n; i++)
+            roff[i + 1] += roff[i];
+
+        int [] rsrc = new int[ntrans];
+        int [] pos = Arrays.copyOf(roff, n);
+        for (int s = 0; s < n; s++) {
+            for (int k = offsets[s]; k < offsets[s + 1]; k++)
+                rsrc[pos[targets[k]]++] = s;
+        }
+
+        boolean [] live = new boolean[n];
+        int [] stack = new int[n];
+        int sp = 0;
+
+        for (int s = 0; s < n; s++) {
+            if (accept[s]) {
+                live[s] = true;
+                stack[sp++] = s;
+            }
+        }
+
+        while (sp > 0) {
+            int s = stack[--sp];
+            for (int k = roff[s]; k < roff[s + 1]; k++) {
+                int src = rsrc[k];
+                if (!live[src]) {
+                    live[src] = true;
+                    stack[sp++] = src;
+                }
+            }
+        }
+
+        int [] nid = new int[n];
+        int m = 0;
+        for (int s = 0; s < n; s++)
+            nid[s] = live[s] ? m++ : -1;
+
+        return nid;
+    }
+
+    /**
+     * Lays out the live states as a matcher, renumbered by nid; transitions
+     * into dropped states are removed.
+     */
+    private static CompiledMatcher build(int [] nid, boolean [] accept, int
+            [] offsets, char [] mins, char [] maxs, int [] targets,
+                                         AlphabetPartition classes) {
+
+        int n = accept.length;
+        int ntrans = offsets[n];
+
+        int m = 0;
+        for (int s = 0; s < n; s++) {
+            if (nid[s] >= 0)
+                m++;
+        }
+
+        boolean [] nacc = new boolean[m];
+        int [] noff = new int[m + 1];
+        char [] nmin = new char[ntrans];
+        char [] nmax = new char[ntrans];
+        int [] ntar = new int[ntrans];
+        int c = 0;
+
+        for (int s = 0; s < n; s++) {
+            if (nid[s] < 0)
+                continue;
+            nacc[nid[s]] = accept[s];
+            noff[nid[s]] = c;
+            for (int k = offsets[s]; k < offsets[s + 1]; k++) {
+                if (nid[targets[k]] < 0)
+                    continue;
+                nmin[c] = mins[k];
+                nmax[c] = maxs[k];
+                ntar[c] = nid[targets[k]];
+                c++;
+            }
+        }
+        noff[m] = c;
+
+        return new CompiledMatcher(nid[0], nacc, noff, Arrays.copyOf(nmin, c),
+                Arrays.copyOf(nmax, c), Arrays.copyOf(ntar, c), classes);
+    }
+}
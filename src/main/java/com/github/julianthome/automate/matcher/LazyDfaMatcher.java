@@ -0,0 +1,277 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.AlphabetPartition;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matcher that determinizes on the fly. Subset states are only created when
+ * an input actually reaches them and are kept in a cache of bounded size.
+ * When the cache is full it is flushed as a whole; if two consecutive
+ * flushes happen so close together that the cache cannot amortize the cost
+ * of building states, the remainder of the input is matched by NFA
+ * simulation instead. Rows of the transition table are allocated as states
+ * are created, so a large capacity costs nothing until it is used.
+ *
+ * The cache is mutable state: a lazy matcher must not be shared between
+ * threads.
+ */
+public final class LazyDfaMatcher {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private static final int UNKNOWN = -2;
+    private static final int DEAD = -1;
+
+    // minimal number of characters per cached state between two flushes
+    private static final int MIN_CHARS_PER_STATE = 10;
+
+    private static final int INITIAL_ROWS = 16;
+
+    private final DenseNfa nfa;
+    private final StateSets sets;
+    private final int capacity;
+
+    private final AlphabetPartition classes;
+    private final int nclasses;
+
+    private int [] trans;
+    private int [][] states;
+    private boolean [] accept;
+    private final Map<IntArrayKey, Integer> index = new HashMap<>();
+    private int size = 0;
+    private int start = UNKNOWN;
+
+    // characters scanned by the cache since the last flush
+    private long sinceFlush = 0;
+    private boolean flushed = false;
+    private boolean thrashing = false;
+
+    private NfaMatcher fallback = null;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long flushes = 0;
+    private long fallbacks = 0;
+
+    private LazyDfaMatcher(DenseNfa nfa, int capacity) {
+
+        if (capacity < 2)
+            throw new IllegalArgumentException("capacity must be at least 2");
+
+        this.nfa = nfa;
+        this.sets = new StateSets(nfa);
+        this.capacity = capacity;
+
+        this.classes = AlphabetPartition.of(nfa);
+        this.nclasses = classes.getClassCount();
+
+        int rows = Math.min(capacity, INITIAL_ROWS);
+        this.trans = new int[rows * nclasses];
+        this.states = new int[rows][];
+        this.accept = new boolean[rows];
+    }
+
+    public static LazyDfaMatcher of(AbstractAutomaton<?> a) {
+        return of(a, DEFAULT_CAPACITY);
+    }
+
+    public static LazyDfaMatcher of(AbstractAutomaton<?> a, int capacity) {
+        return new LazyDfaMatcher(DenseNfa.of(a), capacity);
+    }
+
+    private void flush() {
+        // only the distance between two flushes tells that the cache thrashes
+        thrashing = flushed && sinceFlush < (long) MIN_CHARS_PER_STATE *
+                capacity;
+        flushed = true;
+        sinceFlush = 0;
+
+        evictions += size;
+        flushes++;
+        index.clear();
+        Arrays.fill(states, 0, size, null);
+        size = 0;
+        start = UNKNOWN;
+    }
+
+    private int add(int [] set) {
+        IntArrayKey k = new IntArrayKey(set);
+        Integer id = index.get(k);
+
+        if (id != null)
+            return id;
+
+        if (size == capacity)
+            flush();
+
+        if (size == states.length)
+            grow();
+
+        id = size++;
+        index.put(k, id);
+        states[id] = set;
+        accept[id] = sets.isAccept(set);
+        Arrays.fill(trans, id * nclasses, (id + 1) * nclasses, UNKNOWN);
+        return id;
+    }
+
+    private void grow() {
+        int rows = (int) Math.min(capacity, 2L * states.length);
+        trans = Arrays.copyOf(trans, rows * nclasses);
+        states = Arrays.copyOf(states, rows);
+        accept = Arrays.copyOf(accept, rows);
+    }
+
+    public boolean matches(CharSequence s) {
+
+        if (start == UNKNOWN)
+            start = add(sets.closure(nfa.getInitial()));
+
+        int st = start;
+        long lastFlush = flushes;
+
+        // characters of s up to mark are accounted for in sinceFlush
+        int mark = 0;
+        int i = 0;
+        int len = s.length();
+
+        for (; i < len; i++) {
+
+            char c = s.charAt(i);
+            int cls = classes.classOf(c);
+            int nxt = trans[st * nclasses + cls];
+
+            if (nxt != UNKNOWN) {
+                hits++;
+            } else {
+                misses++;
+
+                int [] set = sets.step(states[st], c);
+
+                if (set.length == 0) {
+                    nxt = DEAD;
+                    trans[st * nclasses + cls] = nxt;
+                } else {
+                    sinceFlush += i - mark;
+                    mark = i;
+                    nxt = add(set);
+                    if (flushes == lastFlush) {
+                        trans[st * nclasses + cls] = nxt;
+                    } else {
+                        // the cache was flushed while adding nxt
+                        if (thrashing)
+                            return simulate(s, i + 1, states[nxt]);
+                        lastFlush = flushes;
+                    }
+                }
+            }
+
+            if (nxt == DEAD)
+                break;
+
+            st = nxt;
+        }
+
+        sinceFlush += i - mark;
+        return i == len && accept[st];
+    }
+
+    private boolean simulate(CharSequence s, int from, int [] set) {
+
+        fallbacks++;
+
+        if (fallback == null)
+            fallback = NfaMatcher.of(nfa);
+
+        int words = fallback.getWords();
+        long [] cur = new long[words];
+        long [] nxt = new long[words];
+
+        for (int q : set)
+            cur[q >>> 6] |= 1L << q;
+
+        for (int i = from, len = s.length(); i < len; i++) {
+            if (!fallback.step(cur, nxt, s.charAt(i)))
+                return false;
+            long [] tmp = cur;
+            cur = nxt;
+            nxt = tmp;
+        }
+
+        return fallback.isAccepting(cur);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of subset states currently cached
+     */
+    public int getCachedStates() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @return how often matching fell back to NFA simulation
+     */
+    public long getFallbacks() {
+        return fallbacks;
+    }
+
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        flushes = 0;
+        fallbacks = 0;
+    }
+}
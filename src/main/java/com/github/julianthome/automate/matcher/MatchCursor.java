@@ -0,0 +1,144 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Stateful cursor over a {@link CompiledMatcher} that consumes its input
+ * chunk by chunk. The feed methods return false as soon as the cursor
+ * reached the dead state, i.e., when no continuation of the input seen so
+ * far can be accepted anymore. A cursor is not thread-safe; create one
+ * cursor per input stream.
+ */
+public final class MatchCursor {
+
+    private static final int BUFSIZE = 8192;
+
+    private final CompiledMatcher matcher;
+    private int state;
+    private long consumed = 0;
+    private char [] buf = null;
+
+    MatchCursor(CompiledMatcher matcher) {
+        this.matcher = matcher;
+        this.state = matcher.getStart();
+    }
+
+    public boolean feed(CharSequence s) {
+        int st = state;
+        int i = 0;
+        for (int len = s.length(); i < len && st != CompiledMatcher.DEAD;
+             i++) {
+            st = matcher.step(st, s.charAt(i));
+        }
+        consumed += i;
+        state = st;
+        return st != CompiledMatcher.DEAD;
+    }
+
+    public boolean feed(char [] chars, int off, int len) {
+        int st = state;
+        int i = off;
+        for (int end = off + len; i < end && st != CompiledMatcher.DEAD; i++)
+            st = matcher.step(st, chars[i]);
+        consumed += i - off;
+        state = st;
+        return st != CompiledMatcher.DEAD;
+    }
+
+    /**
+     * Consumes the remaining characters of the buffer and advances its
+     * position accordingly. If the dead state is reached, the position is
+     * left right after the character that caused it.
+     */
+    public boolean feed(CharBuffer cb) {
+
+        if (cb.hasArray()) {
+            int pos = cb.position();
+            long before = consumed;
+            boolean alive = feed(cb.array(), cb.arrayOffset() + pos, cb
+                    .remaining());
+            cb.position(pos + (int) (consumed - before));
+            return alive;
+        }
+
+        int st = state;
+        int i = cb.position();
+        for (int end = cb.limit(); i < end && st != CompiledMatcher.DEAD; i++)
+            st = matcher.step(st, cb.get(i));
+        consumed += i - cb.position();
+        cb.position(i);
+        state = st;
+        return st != CompiledMatcher.DEAD;
+    }
+
+    /**
+     * Reads from the given reader until its end or until the dead state is
+     * reached. The reader is not closed.
+     */
+    public boolean feed(Reader r) throws IOException {
+
+        if (buf == null)
+            buf = new char[BUFSIZE];
+
+        int n;
+        while (state != CompiledMatcher.DEAD && (n = r.read(buf)) != -1)
+            feed(buf, 0, n);
+
+        return state != CompiledMatcher.DEAD;
+    }
+
+    public boolean feed(InputStream in, Charset cs) throws IOException {
+        return feed(new InputStreamReader(in, cs));
+    }
+
+    public boolean isAccepting() {
+        return state != CompiledMatcher.DEAD && matcher.isAccept(state);
+    }
+
+    public boolean isDead() {
+        return state == CompiledMatcher.DEAD;
+    }
+
+    /**
+     * @return the number of characters consumed since the last reset
+     */
+    public long getConsumed() {
+        return consumed;
+    }
+
+    public void reset() {
+        state = matcher.getStart();
+        consumed = 0;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+/**
+ * Matches an input against all patterns of a {@link PatternSet} in a single
+ * pass. Instances are immutable and can be shared between threads.
+ */
+public final class MultiMatcher {
+
+    private static final int [] NONE = new int[0];
+
+    private final CompiledMatcher dfa;
+    private final int [][] tags;
+
+    MultiMatcher(CompiledMatcher dfa, int [][] tags) {
+        this.dfa = dfa;
+        this.tags = tags;
+    }
+
+    /**
+     * @return the ids of all patterns that match s in ascending order
+     */
+    public int [] match(CharSequence s) {
+        int st = dfa.run(s);
+
+        if (st == CompiledMatcher.DEAD || tags[st] == null)
+            return NONE;
+
+        return tags[st].clone();
+    }
+
+    public boolean matchesAny(CharSequence s) {
+        return dfa.matches(s);
+    }
+
+    public int getStateCount() {
+        return dfa.getStateCount();
+    }
+}
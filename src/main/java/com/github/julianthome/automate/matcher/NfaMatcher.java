@@ -0,0 +1,183 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Thompson-style simulation of a (possibly nondeterministic) automaton.
+ * The set of active states is kept as a bitset indexed by dense state ids
+ * and advanced one character at a time, so matching takes O(n*m) time and
+ * O(m) memory for an input of length n and an automaton with m states,
+ * regardless of epsilon cycles or the degree of nondeterminism.
+ */
+public final class NfaMatcher {
+
+    private final DenseNfa nfa;
+    private final int [][] closures;
+    private final long [] init;
+    private final long [] accept;
+    private final int words;
+
+    private NfaMatcher(DenseNfa nfa) {
+        this.nfa = nfa;
+        this.closures = nfa.getClosures();
+        this.words = (nfa.size() + 63) >>> 6;
+
+        this.init = new long[words];
+        for (int s : nfa.getInitial())
+            or(init, closures[s]);
+
+        this.accept = new long[words];
+        for (int s = 0; s < nfa.size(); s++) {
+            if (nfa.isAccept(s))
+                accept[s >>> 6] |= 1L << s;
+        }
+    }
+
+    public static NfaMatcher of(AbstractAutomaton<?> a) {
+        return new NfaMatcher(DenseNfa.of(a));
+    }
+
+    public static NfaMatcher of(DenseNfa nfa) {
+        return new NfaMatcher(nfa);
+    }
+
+    public boolean matches(CharSequence s) {
+        return matches(s, new long[words], new long[words]);
+    }
+
+    /**
+     * Matches all items of a batch in parallel on the common fork/join pool.
+     * Every worker allocates its two active sets once and reuses them.
+     *
+     * @param items inputs to match
+     * @return bitset in which bit i is set iff items[i] is accepted
+     */
+    public BitSet matchAll(List<? extends CharSequence> items) {
+        return matchAll(items, ForkJoinPool.commonPool());
+    }
+
+    public BitSet matchAll(List<? extends CharSequence> items, Executor
+            executor) {
+        return BatchMatcher.matchAll(items, this::newWorker, executor);
+    }
+
+    public BitSet matchAll(CharSequence [] items) {
+        return matchAll(items, ForkJoinPool.commonPool());
+    }
+
+    public BitSet matchAll(CharSequence [] items, Executor executor) {
+        return BatchMatcher.matchAll(items, this::newWorker, executor);
+    }
+
+    private BatchMatcher.Worker newWorker() {
+        long [] cur = new long[words];
+        long [] nxt = new long[words];
+        return s -> matches(s, cur, nxt);
+    }
+
+    boolean matches(CharSequence s, long [] cur, long [] nxt) {
+
+        System.arraycopy(init, 0, cur, 0, words);
+
+        for (int i = 0, len = s.length(); i < len; i++) {
+            if (!step(cur, nxt, s.charAt(i)))
+                return false;
+            long [] tmp = cur;
+            cur = nxt;
+            nxt = tmp;
+        }
+
+        return intersects(cur, accept);
+    }
+
+    /**
+     * Advances the active set cur by character c and stores the result in
+     * nxt.
+     *
+     * @return false if no state is active anymore
+     */
+    boolean step(long [] cur, long [] nxt, char c) {
+
+        boolean alive = false;
+
+        for (int w = 0; w < words; w++)
+            nxt[w] = 0L;
+
+        for (int w = 0; w < words; w++) {
+            long bits = cur[w];
+            while (bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                for (int k = nfa.getFirstTransition(s); k < nfa
+                        .getLastTransition(s); k++) {
+                    if (nfa.getMin(k) > c)
+                        break;
+                    if (nfa.getMax(k) >= c) {
+                        or(nxt, closures[nfa.getTarget(k)]);
+                        alive = true;
+                    }
+                }
+            }
+        }
+
+        return alive;
+    }
+
+    int getWords() {
+        return words;
+    }
+
+    long [] getInit() {
+        return init;
+    }
+
+    boolean isAccepting(long [] cur) {
+        return intersects(cur, accept);
+    }
+
+    private static void or(long [] bits, int [] states) {
+        for (int s : states)
+            bits[s >>> 6] |= 1L << s;
+    }
+
+    private static boolean intersects(long [] a, long [] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & b[w]) != 0)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.DenseNfa;
+import com.github.julianthome.automate.parser.RegexParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of (pattern id, regular expression) pairs that is compiled into a
+ * single tagged DFA, see {@link MultiMatcher}.
+ */
+public class PatternSet {
+
+    private final List<DenseNfa> parts = new ArrayList<>();
+    private int [] ids = new int[16];
+
+    public PatternSet add(int id, String rexp) {
+
+        AbstractAutomaton a = RegexParser.INSTANCE.getAutomaton(rexp);
+
+        if (a == null)
+            throw new IllegalArgumentException("cannot parse regular " +
+                    "expression " + rexp);
+
+        return add(id, a);
+    }
+
+    public PatternSet add(int id, AbstractAutomaton<?> a) {
+        if (parts.size() == ids.length)
+            ids = Arrays.copyOf(ids, ids.length * 2);
+
+        ids[parts.size()] = id;
+        parts.add(DenseNfa.of(a));
+        return this;
+    }
+
+    public int size() {
+        return parts.size();
+    }
+
+    public MultiMatcher compile() {
+        return TaggedCompiler.compile(parts, Arrays.copyOf(ids,
+                parts.size()));
+    }
+}
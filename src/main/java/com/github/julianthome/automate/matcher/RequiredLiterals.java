@@ -0,0 +1,459 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Literals that every string of a language must contain: a common prefix,
+ * a common suffix and required inner factors. They allow inputs to be
+ * rejected by plain string scanning before an automaton is run. For the
+ * empty language no literals are reported. Instances are immutable.
+ */
+public final class RequiredLiterals {
+
+    // upper bound for the length of every extracted literal
+    private static final int MAX_LENGTH = 32;
+
+    // upper bound for the product states explored while searching factors
+    private static final long MAX_WORK = 1 << 20;
+
+    private static final RequiredLiterals NONE = new RequiredLiterals("",
+            "", Collections.emptyList());
+
+    private final String prefix;
+    private final String suffix;
+    private final List<String> factors;
+
+    // factors not implied by prefix or suffix, longest first
+    private final String [] inner;
+
+    private RequiredLiterals(String prefix, String suffix, List<String>
+            factors) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.factors = Collections.unmodifiableList(factors);
+        this.inner = factors.stream().filter(f -> !prefix.contains(f) &&
+                !suffix.contains(f)).sorted(Comparator.comparingInt
+                (String::length).reversed()).toArray(String[]::new);
+    }
+
+    public static RequiredLiterals of(AbstractAutomaton<?> a) {
+        return of(DenseNfa.of(a));
+    }
+
+    public static RequiredLiterals of(DenseNfa nfa) {
+
+        DenseNfa rev = nfa.reverse();
+        boolean [] live = getLiveStates(nfa, rev);
+
+        boolean empty = true;
+        for (int s : nfa.getInitial())
+            empty &= !live[s];
+
+        if (empty)
+            return NONE;
+
+        String prefix = getPrefix(nfa, live);
+        String suffix = new StringBuilder(getPrefix(rev, live))
+                .reverse().toString();
+
+        return new RequiredLiterals(prefix, suffix, getFactors(nfa, live,
+                new Meter()));
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * @return maximal required factors; none of them is contained in another
+     */
+    public List<String> getFactors() {
+        return factors;
+    }
+
+    /**
+     * @return true if no literal is known, i.e. {@link #mayMatch} accepts
+     * every input
+     */
+    public boolean isTrivial() {
+        return prefix.isEmpty() && suffix.isEmpty() && inner.length == 0;
+    }
+
+    /**
+     * A cheap necessary condition for s to be accepted.
+     *
+     * @return false if s cannot be accepted
+     */
+    public boolean mayMatch(CharSequence s) {
+
+        if (s.length() < Math.max(prefix.length(), suffix.length()))
+            return false;
+
+        if (!regionMatches(s, 0, prefix))
+            return false;
+
+        if (!regionMatches(s, s.length() - suffix.length(), suffix))
+            return false;
+
+        for (String f : inner) {
+            if (indexOf(s, f, 0) < 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the first position at or after from at which a match can
+     * start, or -1 if there is none
+     */
+    int skip(CharSequence s, int from) {
+
+        // the longest factor is the most selective one
+        if (inner.length > 0 && indexOf(s, inner[0], from) < 0)
+            return -1;
+
+        if (prefix.isEmpty())
+            return from;
+
+        return indexOf(s, prefix, from);
+    }
+
+    static int indexOf(CharSequence s, String lit, int from) {
+
+        if (s instanceof String)
+            return ((String) s).indexOf(lit, from);
+
+        char first = lit.charAt(0);
+        int last = s.length() - lit.length();
+
+        for (int i = Math.max(from, 0); i <= last; i++) {
+            if (s.charAt(i) == first && regionMatches(s, i, lit))
+                return i;
+        }
+
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence s, int off, String lit) {
+        for (int i = 0; i < lit.length(); i++) {
+            if (s.charAt(off + i) != lit.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the states that are reachable from an initial state and from
+     * which an accept state is reachable
+     */
+    private static boolean [] getLiveStates(DenseNfa nfa, DenseNfa rev) {
+        boolean [] fwd = reach(nfa, nfa.getInitial());
+        boolean [] bwd = reach(rev, rev.getInitial());
+
+        boolean [] live = new boolean[nfa.size()];
+        for (int s = 0; s < live.length; s++)
+            live[s] = fwd[s] && bwd[s];
+        return live;
+    }
+
+    private static boolean [] reach(DenseNfa nfa, int [] from) {
+        boolean [] seen = new boolean[nfa.size()];
+        int [] work = new int[nfa.size()];
+        int top = 0;
+
+        for (int s : from) {
+            if (!seen[s]) {
+                seen[s] = true;
+                work[top++] = s;
+            }
+        }
+
+        while (top > 0) {
+            int s = work[--top];
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+                int t = nfa.getTarget(k);
+                if (!seen[t]) {
+                    seen[t] = true;
+                    work[top++] = t;
+                }
+            }
+            for (int k = nfa.getFirstEpsilon(s); k < nfa.getLastEpsilon(s);
+                 k++) {
+                int t = nfa.getEpsilonTarget(k);
+                if (!seen[t]) {
+                    seen[t] = true;
+                    work[top++] = t;
+                }
+            }
+        }
+
+        return seen;
+    }
+
+    private static int [] restrict(int [] states, boolean [] live) {
+        int n = 0;
+        int [] ret = new int[states.length];
+        for (int s : states) {
+            if (live[s])
+                ret[n++] = s;
+        }
+        return Arrays.copyOf(ret, n);
+    }
+
+    /**
+     * Follows the initial states as long as no accept state is active and
+     * all live transitions carry the same single character.
+     */
+    private static String getPrefix(DenseNfa nfa, boolean [] live) {
+
+        StateSets sets = new StateSets(nfa);
+        StringBuilder sb = new StringBuilder();
+
+        int [] cur = restrict(sets.closure(nfa.getInitial()), live);
+
+        while (sb.length() < MAX_LENGTH && cur.length > 0 && !sets.isAccept
+                (cur)) {
+
+            int c = -1;
+
+            for (int s : cur) {
+                for (int k = nfa.getFirstTransition(s); k < nfa
+                        .getLastTransition(s); k++) {
+                    if (!live[nfa.getTarget(k)])
+                        continue;
+                    if (nfa.getMin(k) != nfa.getMax(k) || (c >= 0 && c !=
+                            nfa.getMin(k)))
+                        return sb.toString();
+                    c = nfa.getMin(k);
+                }
+            }
+
+            if (c < 0)
+                break;
+
+            sb.append((char) c);
+            cur = restrict(sets.step(cur, (char) c), live);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Bounds the work spent on factors, so that compiling a large automaton
+     * does not pay for an exhaustive search. Factors that could not be
+     * checked within the budget are treated as not required, which only
+     * makes the prefilter less selective.
+     */
+    private static final class Meter {
+
+        private long left = MAX_WORK;
+
+        boolean charge(long work) {
+            left -= work;
+            return left >= 0;
+        }
+    }
+
+    private static List<String> getFactors(DenseNfa nfa, boolean [] live,
+                                           Meter meter) {
+
+        // candidate characters: labels of single-character transitions
+        TreeSet<Character> singles = new TreeSet<>();
+        for (int s = 0; s < nfa.size(); s++) {
+            if (!live[s])
+                continue;
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+                if (nfa.getMin(k) == nfa.getMax(k) && live[nfa.getTarget(k)])
+                    singles.add(nfa.getMin(k));
+            }
+        }
+
+        List<String> found = new ArrayList<>();
+
+        for (char c : singles) {
+
+            String w = String.valueOf(c);
+
+            if (!isRequired(nfa, live, w, meter) || contains(found, w))
+                continue;
+
+            // grow the factor greedily to the right, then to the left
+            boolean grown = true;
+            while (grown && w.length() < MAX_LENGTH) {
+                grown = false;
+                for (char d : singles) {
+                    if (isRequired(nfa, live, w + d, meter)) {
+                        w = w + d;
+                        grown = true;
+                        break;
+                    }
+                }
+            }
+
+            grown = true;
+            while (grown && w.length() < MAX_LENGTH) {
+                grown = false;
+                for (char d : singles) {
+                    if (isRequired(nfa, live, d + w, meter)) {
+                        w = d + w;
+                        grown = true;
+                        break;
+                    }
+                }
+            }
+
+            if (!contains(found, w)) {
+                found.removeIf(w::contains);
+                found.add(w);
+            }
+        }
+
+        return found;
+    }
+
+    private static boolean contains(List<String> factors, String w) {
+        for (String f : factors) {
+            if (f.contains(w))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether every accepted string contains w by exploring the
+     * product of the automaton with the Knuth-Morris-Pratt automaton of w;
+     * product states in which w has been seen completely are never entered.
+     *
+     * @return false if w is not required, or if meter runs out
+     */
+    private static boolean isRequired(DenseNfa nfa, boolean [] live, String
+            w, Meter meter) {
+
+        int m = w.length();
+
+        if (!meter.charge((long) (nfa.size() + nfa.getTransitionCount()) * m))
+            return false;
+
+        int [] fail = new int[m + 1];
+        fail[0] = -1;
+        for (int i = 1, j = 0; i < m; i++) {
+            while (j > 0 && w.charAt(i) != w.charAt(j))
+                j = fail[j];
+            if (w.charAt(i) == w.charAt(j))
+                j++;
+            fail[i + 1] = j;
+        }
+
+        char [] distinct = w.chars().distinct().sorted().collect
+                (StringBuilder::new, StringBuilder::appendCodePoint,
+                        StringBuilder::append).toString().toCharArray();
+
+        boolean [] seen = new boolean[nfa.size() * m];
+        int [] work = new int[nfa.size() * m];
+        int top = 0;
+
+        for (int s : nfa.getInitial()) {
+            if (live[s] && !seen[s * m]) {
+                seen[s * m] = true;
+                work[top++] = s * m;
+            }
+        }
+
+        while (top > 0) {
+            int p = work[--top];
+            int s = p / m;
+            int j = p % m;
+
+            if (nfa.isAccept(s))
+                return false;
+
+            for (int k = nfa.getFirstEpsilon(s); k < nfa.getLastEpsilon(s);
+                 k++) {
+                int t = nfa.getEpsilonTarget(k);
+                if (live[t] && !seen[t * m + j]) {
+                    seen[t * m + j] = true;
+                    work[top++] = t * m + j;
+                }
+            }
+
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+
+                int t = nfa.getTarget(k);
+                if (!live[t])
+                    continue;
+
+                char lo = nfa.getMin(k);
+                char hi = nfa.getMax(k);
+
+                // characters of w inside the range
+                int inside = 0;
+                for (char x : distinct) {
+                    if (x < lo || x > hi)
+                        continue;
+                    inside++;
+                    int nj = next(w, fail, j, x);
+                    if (nj < m && !seen[t * m + nj]) {
+                        seen[t * m + nj] = true;
+                        work[top++] = t * m + nj;
+                    }
+                }
+
+                // any other character resets the match
+                if (inside < hi - lo + 1 && !seen[t * m]) {
+                    seen[t * m] = true;
+                    work[top++] = t * m;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static int next(String w, int [] fail, int j, char x) {
+        while (j >= 0 && w.charAt(j) != x)
+            j = fail[j];
+        return j + 1;
+    }
+}
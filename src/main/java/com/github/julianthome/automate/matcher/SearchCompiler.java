@@ -0,0 +1,174 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.Arrays;
+
+/**
+ * Builds the forward DFA used for unanchored leftmost-longest search. A DFA
+ * state is an ordered list of thread groups, one group per start position
+ * that is still alive, ordered from the leftmost start to the rightmost one.
+ * An NFA state only appears in the leftmost group that reaches it. As long
+ * as no match has been seen, a fresh group for the next start position is
+ * appended after every character. Once a group accepts, all groups to its
+ * right are dropped and no new groups are started, so the DFA keeps only
+ * the threads that can still produce the leftmost-longest match.
+ *
+ * Keys are encoded as [matched, g1, ..., -1, g2, ..., -1, ...].
+ */
+final class SearchCompiler extends DfaCompiler {
+
+    private static final int SEP = -1;
+
+    private final int [] start;
+
+    // generation stamps of NFA states already owned by a group
+    private final int [] seen;
+    private int gen = 0;
+
+    // scratch key; every NFA state occurs at most once in a key, and every
+    // non-empty group ends with a separator
+    private final int [] out;
+
+    private SearchCompiler(DenseNfa nfa) {
+        super(nfa);
+        this.start = closure(nfa.getInitial());
+        this.seen = new int[nfa.size()];
+        this.out = new int[2 * nfa.size() + 1];
+    }
+
+    static CompiledMatcher compile(DenseNfa nfa) {
+        return new SearchCompiler(nfa).run();
+    }
+
+    @Override
+    protected int [] initial() {
+        int [] key = new int[start.length + 2];
+        key[0] = accepts(start) ? 1 : 0;
+        System.arraycopy(start, 0, key, 1, start.length);
+        key[key.length - 1] = SEP;
+        return key;
+    }
+
+    @Override
+    protected boolean isTotal(int [] key) {
+        return key[0] == 0;
+    }
+
+    @Override
+    protected int [] members(int [] key) {
+        int cnt = 0;
+        for (int i = 1; i < key.length; i++) {
+            if (key[i] != SEP)
+                cnt++;
+        }
+        int [] ret = new int[cnt];
+        int p = 0;
+        for (int i = 1; i < key.length; i++) {
+            if (key[i] != SEP)
+                ret[p++] = key[i];
+        }
+        return ret;
+    }
+
+    @Override
+    protected int [] successor(int [] key, char c) {
+
+        boolean matched = key[0] == 1;
+
+        int len = 1;
+
+        int g = ++gen;
+
+        // position in out right after the first accepting group
+        int cut = -1;
+
+        int from = 1;
+        for (int i = 1; i < key.length; i++) {
+            if (key[i] != SEP)
+                continue;
+
+            int [] nxt = step(Arrays.copyOfRange(key, from, i), c);
+            from = i + 1;
+
+            int before = len;
+            boolean acc = false;
+            for (int s : nxt) {
+                if (seen[s] != g) {
+                    seen[s] = g;
+                    out[len++] = s;
+                    acc |= nfa.isAccept(s);
+                }
+            }
+
+            if (len > before) {
+                out[len++] = SEP;
+                if (acc) {
+                    cut = len;
+                    break;
+                }
+            }
+        }
+
+        if (cut < 0 && !matched) {
+            int before = len;
+            boolean acc = false;
+            for (int s : start) {
+                if (seen[s] != g) {
+                    out[len++] = s;
+                    acc |= nfa.isAccept(s);
+                }
+            }
+            if (len > before) {
+                out[len++] = SEP;
+                if (acc)
+                    cut = len;
+            }
+        }
+
+        if (cut >= 0) {
+            len = cut;
+            matched = true;
+        }
+
+        if (len == 1)
+            return null;
+
+        out[0] = matched ? 1 : 0;
+        return Arrays.copyOf(out, len);
+    }
+
+    private boolean accepts(int [] states) {
+        for (int s : states) {
+            if (nfa.isAccept(s))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.AbstractAutomaton;
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unanchored search for the language of an automaton inside a larger text.
+ * Matches are reported leftmost-longest and non-overlapping. A forward DFA
+ * finds the end of the leftmost-longest match, then a DFA of the reversed
+ * language is run backwards from that end to find where the match starts.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class Searcher {
+
+    private final CompiledMatcher forward;
+    private final CompiledMatcher reverse;
+    private final RequiredLiterals literals;
+
+    private Searcher(CompiledMatcher forward, CompiledMatcher reverse,
+                     RequiredLiterals literals) {
+        this.forward = forward;
+        this.reverse = reverse;
+        this.literals = literals;
+    }
+
+    public static Searcher of(AbstractAutomaton<?> a) {
+        DenseNfa nfa = DenseNfa.of(a);
+        return new Searcher(SearchCompiler.compile(nfa), DfaCompiler.compile
+                (nfa.reverse()), RequiredLiterals.of(nfa));
+    }
+
+    public MatchSpan find(CharSequence s) {
+        return find(s, 0);
+    }
+
+    /**
+     * @return the leftmost-longest match that starts at or after from, or
+     * null if there is none
+     */
+    public MatchSpan find(CharSequence s, int from) {
+
+        // no match starts before the next occurrence of the prefix
+        from = literals.skip(s, from);
+
+        if (from < 0)
+            return null;
+
+        int end = findEnd(s, from);
+
+        if (end < 0)
+            return null;
+
+        return new MatchSpan(findStart(s, from, end), end);
+    }
+
+    public List<MatchSpan> findAll(CharSequence s) {
+
+        List<MatchSpan> ret = new ArrayList<>();
+
+        int pos = 0;
+
+        while (pos <= s.length()) {
+            MatchSpan m = find(s, pos);
+
+            if (m == null)
+                break;
+
+            ret.add(m);
+
+            // step over empty matches
+            pos = m.getEnd() > m.getStart() ? m.getEnd() : m.getEnd() + 1;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Searches the remaining bytes of the buffer, every byte being
+     * interpreted as an ISO-8859-1 character. Offsets of the returned spans
+     * are relative to the position of the buffer. The buffer is neither
+     * copied nor is its position modified.
+     */
+    public List<MatchSpan> findAll(ByteBuffer buf) {
+        return findAll(new ByteSequence(buf));
+    }
+
+    /**
+     * Memory-maps the given file and searches its content like
+     * {@link #findAll(ByteBuffer)}.
+     */
+    public List<MatchSpan> findAll(Path file) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption
+                .READ)) {
+
+            if (ch.size() > Integer.MAX_VALUE)
+                throw new IOException("file too large to be mapped: " + file);
+
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0,
+                    ch.size());
+
+            return findAll(buf);
+        }
+    }
+
+    private int findEnd(CharSequence s, int from) {
+
+        int st = forward.getStart();
+
+        if (st == CompiledMatcher.DEAD)
+            return -1;
+
+        int last = forward.isAccept(st) ? from : -1;
+
+        for (int i = from, len = s.length(); i < len; i++) {
+            st = forward.step(st, s.charAt(i));
+            if (st == CompiledMatcher.DEAD)
+                break;
+            if (forward.isAccept(st))
+                last = i + 1;
+        }
+
+        return last;
+    }
+
+    private int findStart(CharSequence s, int from, int end) {
+
+        int st = reverse.getStart();
+        int first = reverse.isAccept(st) ? end : -1;
+
+        for (int i = end - 1; i >= from; i--) {
+            st = reverse.step(st, s.charAt(i));
+            if (st == CompiledMatcher.DEAD)
+                break;
+            if (reverse.isAccept(st))
+                first = i;
+        }
+
+        assert first >= 0;
+        return first;
+    }
+}
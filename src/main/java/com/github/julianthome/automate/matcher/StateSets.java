@@ -0,0 +1,106 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.Arrays;
+
+/**
+ * Computes epsilon closures and successors of sets of NFA states. Sets are
+ * represented as sorted int arrays. Not thread-safe.
+ */
+final class StateSets {
+
+    private final DenseNfa nfa;
+    private final int [][] closures;
+
+    private final int [] stamp;
+    private final int [] buf;
+    private int gen = 0;
+
+    StateSets(DenseNfa nfa) {
+        this.nfa = nfa;
+        this.closures = nfa.getClosures();
+        this.stamp = new int[nfa.size()];
+        this.buf = new int[nfa.size()];
+    }
+
+    /**
+     * @return the sorted epsilon closure of the given states
+     */
+    int [] closure(int [] states) {
+        int g = ++gen;
+        int cnt = 0;
+        for (int s : states) {
+            for (int t : closures[s]) {
+                if (stamp[t] != g) {
+                    stamp[t] = g;
+                    buf[cnt++] = t;
+                }
+            }
+        }
+        int [] ret = Arrays.copyOf(buf, cnt);
+        Arrays.sort(ret);
+        return ret;
+    }
+
+    /**
+     * @return the sorted epsilon closure of all states reachable from the
+     * given states by character c
+     */
+    int [] step(int [] states, char c) {
+        int g = ++gen;
+        int cnt = 0;
+        for (int s : states) {
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+                if (nfa.getMin(k) > c)
+                    break;
+                if (nfa.getMax(k) < c)
+                    continue;
+                for (int t : closures[nfa.getTarget(k)]) {
+                    if (stamp[t] != g) {
+                        stamp[t] = g;
+                        buf[cnt++] = t;
+                    }
+                }
+            }
+        }
+        int [] ret = Arrays.copyOf(buf, cnt);
+        Arrays.sort(ret);
+        return ret;
+    }
+
+    boolean isAccept(int [] states) {
+        for (int s : states) {
+            if (nfa.isAccept(s))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.DenseNfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Determinizes the side-by-side union of several automata in which every
+ * NFA state remembers the pattern it belongs to. Every accepting DFA state
+ * is tagged with the ids of all patterns that accept in it, which only
+ * depends on the subset of NFA states that the DFA state stands for.
+ */
+final class TaggedCompiler {
+
+    private TaggedCompiler() {
+    }
+
+    static MultiMatcher compile(List<DenseNfa> parts, int [] ids) {
+
+        DenseNfa nfa = DenseNfa.union(parts);
+
+        int [] owner = new int[nfa.size()];
+        int base = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            Arrays.fill(owner, base, base + parts.get(i).size(), i);
+            base += parts.get(i).size();
+        }
+
+        List<int []> subsets = new ArrayList<>();
+        DenseNfa dfa = nfa.determinize(subsets);
+
+        int [] origin = new int[dfa.size()];
+        CompiledMatcher m = DfaCompiler.layout(dfa, origin);
+
+        int [][] tags = new int[m.getStateCount()][];
+
+        for (int s = 0; s < tags.length; s++) {
+            if (m.isAccept(s))
+                tags[s] = getTags(nfa, owner, ids, subsets.get(origin[s]));
+        }
+
+        return new MultiMatcher(m, tags);
+    }
+
+    private static int [] getTags(DenseNfa nfa, int [] owner, int [] ids,
+                                  int [] subset) {
+        int [] ret = new int[subset.length];
+        int cnt = 0;
+        for (int s : subset) {
+            if (nfa.isAccept(s))
+                ret[cnt++] = ids[owner[s]];
+        }
+        ret = Arrays.copyOf(ret, cnt);
+        Arrays.sort(ret);
+
+        int u = 0;
+        for (int i = 0; i < cnt; i++) {
+            if (u == 0 || ret[u - 1] != ret[i])
+                ret[u++] = ret[i];
+        }
+        return Arrays.copyOf(ret, u);
+    }
+}
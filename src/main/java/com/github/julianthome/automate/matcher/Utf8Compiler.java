@@ -0,0 +1,200 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.DenseNfa;
+
+/**
+ * Translates an automaton over UTF-16 code units into an automaton over
+ * UTF-8 bytes (labels 0-255) that accepts exactly the UTF-8 encodings of
+ * the accepted strings. A transition on a high surrogate followed by one on
+ * a low surrogate is merged into a transition on the supplementary code
+ * points they denote, which are then encoded as four-byte sequences.
+ * Unpaired surrogates cannot be encoded in UTF-8 and are dropped.
+ */
+final class Utf8Compiler {
+
+    private static final int MIN_HIGH = 0xD800;
+    private static final int MAX_HIGH = 0xDBFF;
+    private static final int MIN_LOW = 0xDC00;
+    private static final int MAX_LOW = 0xDFFF;
+
+    // largest code point that is encoded with 1, 2 and 3 bytes
+    private static final int [] MAX_CP = {0x7F, 0x7FF, 0xFFFF};
+
+    private final DenseNfa.Builder out = new DenseNfa.Builder();
+
+    private Utf8Compiler() {
+    }
+
+    static DenseNfa compile(DenseNfa nfa) {
+        return new Utf8Compiler().translate(nfa);
+    }
+
+    private DenseNfa translate(DenseNfa nfa) {
+
+        int [][] closures = nfa.getClosures();
+
+        for (int s = 0; s < nfa.size(); s++)
+            out.addState(nfa.isAccept(s));
+
+        for (int s = 0; s < nfa.size(); s++) {
+
+            for (int k = nfa.getFirstEpsilon(s); k < nfa.getLastEpsilon(s);
+                 k++)
+                out.addEpsilon(s, nfa.getEpsilonTarget(k));
+
+            for (int k = nfa.getFirstTransition(s); k < nfa
+                    .getLastTransition(s); k++) {
+
+                int lo = nfa.getMin(k);
+                int hi = nfa.getMax(k);
+                int t = nfa.getTarget(k);
+
+                addCodePoints(s, lo, Math.min(hi, MIN_HIGH - 1), t);
+                addCodePoints(s, Math.max(lo, MAX_LOW + 1), hi, t);
+
+                int h1 = Math.max(lo, MIN_HIGH);
+                int h2 = Math.min(hi, MAX_HIGH);
+
+                if (h1 > h2)
+                    continue;
+
+                // pair the high surrogates with the following low ones
+                for (int q : closures[t]) {
+                    for (int j = nfa.getFirstTransition(q); j < nfa
+                            .getLastTransition(q); j++) {
+
+                        int l1 = Math.max(nfa.getMin(j), MIN_LOW);
+                        int l2 = Math.min(nfa.getMax(j), MAX_LOW);
+                        int u = nfa.getTarget(j);
+
+                        if (l1 > l2)
+                            continue;
+
+                        if (l1 == MIN_LOW && l2 == MAX_LOW) {
+                            addCodePoints(s, toCodePoint(h1, l1),
+                                    toCodePoint(h2, l2), u);
+                        } else {
+                            for (int h = h1; h <= h2; h++)
+                                addCodePoints(s, toCodePoint(h, l1),
+                                        toCodePoint(h, l2), u);
+                        }
+                    }
+                }
+            }
+        }
+
+        return out.build(nfa.getInitial());
+    }
+
+    private static int toCodePoint(int high, int low) {
+        return Character.toCodePoint((char) high, (char) low);
+    }
+
+    /**
+     * Adds paths from s to t for the encodings of all code points in [a,b],
+     * which must not contain surrogates. The range is split until the
+     * encodings of every piece are a product of byte ranges.
+     */
+    private void addCodePoints(int s, int a, int b, int t) {
+
+        if (a > b)
+            return;
+
+        for (int m : MAX_CP) {
+            if (a <= m && m < b) {
+                addCodePoints(s, a, m, t);
+                addCodePoints(s, m + 1, b, t);
+                return;
+            }
+        }
+
+        int n = length(a);
+
+        for (int i = 1; i < n; i++) {
+            int m = (1 << (6 * i)) - 1;
+            if ((a & ~m) != (b & ~m)) {
+                if ((a & m) != 0) {
+                    addCodePoints(s, a, a | m, t);
+                    addCodePoints(s, (a | m) + 1, b, t);
+                    return;
+                }
+                if ((b & m) != m) {
+                    addCodePoints(s, a, (b & ~m) - 1, t);
+                    addCodePoints(s, b & ~m, b, t);
+                    return;
+                }
+            }
+        }
+
+        byte [] ea = encode(a, n);
+        byte [] eb = encode(b, n);
+
+        int cur = s;
+        for (int i = 0; i < n; i++) {
+            int nxt = i == n - 1 ? t : out.addState(false);
+            out.addTransition(cur, (char) (ea[i] & 0xFF), (char) (eb[i] &
+                    0xFF), nxt);
+            cur = nxt;
+        }
+    }
+
+    private static int length(int cp) {
+        if (cp <= MAX_CP[0])
+            return 1;
+        if (cp <= MAX_CP[1])
+            return 2;
+        if (cp <= MAX_CP[2])
+            return 3;
+        return 4;
+    }
+
+    private static byte [] encode(int cp, int n) {
+        byte [] ret = new byte[n];
+        switch (n) {
+            case 1:
+                ret[0] = (byte) cp;
+                break;
+            case 2:
+                ret[0] = (byte) (0xC0 | (cp >>> 6));
+                ret[1] = (byte) (0x80 | (cp & 0x3F));
+                break;
+            case 3:
+                ret[0] = (byte) (0xE0 | (cp >>> 12));
+                ret[1] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+                ret[2] = (byte) (0x80 | (cp & 0x3F));
+                break;
+            default:
+                ret[0] = (byte) (0xF0 | (cp >>> 18));
+                ret[1] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+                ret[2] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+                ret[3] = (byte) (0x80 | (cp & 0x3F));
+        }
+        return ret;
+    }
+}
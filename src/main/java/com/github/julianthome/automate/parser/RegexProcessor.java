@@ -28,6 +28,7 @@ package com.github.julianthome.automate.parser;
 
 import com.github.julianthome.automate.core.AbstractAutomaton;
 import com.github.julianthome.automate.core.Automaton;
+import com.github.julianthome.automate.core.AutomatonBuilder;
 import com.github.julianthome.automate.core.AutomatonFactory;
 import com.github.julianthome.automate.core.AutomatonProvider;
 import com.github.julianthome.automate.utils.EscapeUtils;
@@ -83,15 +84,17 @@ public class RegexProcessor extends ParseTreeProcessor<AbstractAutomaton, Abstra
 
     private AbstractAutomaton unifyChildren(ParseTreeNode n) {
         LOGGER.debug("expr");
-        AbstractAutomaton cc = null;
-        for (ParseTreeNode c : n.getChildren()) {
-            if (cc == null) {
-                cc = smap.get(c);
-                continue;
-            }
-            cc = cc.union(smap.get(c));
-        }
-        return cc;
+
+        List<ParseTreeNode> children = n.getChildren();
+        if (children.size() == 1)
+            return smap.get(children.get(0));
+
+        // large alternations are unified in place and canonicalized once
+        AutomatonBuilder<AbstractAutomaton> cc = new AutomatonBuilder<>
+                (provider);
+        for (ParseTreeNode c : children)
+            cc.unionWith(smap.get(c));
+        return cc.build();
     }
 
     @Override
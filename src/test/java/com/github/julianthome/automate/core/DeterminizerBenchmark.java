@@ -0,0 +1,83 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import com.github.julianthome.automate.utils.StopWatch;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the subset construction with 1 to N worker threads, where N is
+ * the number of available processors. Not run as part of the tests; start
+ * it with an optional argument n for the [ab]* a [ab]{n} NFA of
+ * {@link Fixtures#getBlowup(int)}, which has a DFA of 2^(n+1) states.
+ */
+public class DeterminizerBenchmark {
+
+    private static final int RUNS = 5;
+
+    public static void main(String [] args) {
+
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 18;
+        DenseNfa nfa = DenseNfa.of(Fixtures.getBlowup(n));
+
+        // warm up
+        Determinizer.determinize(nfa);
+
+        StopWatch sw = StopWatch.get();
+        for (int i = 0; i < RUNS; i++) {
+            sw.start();
+            Determinizer.determinize(nfa);
+            sw.stop();
+        }
+        long base = sw.getOverallTime() / RUNS;
+        System.out.printf("sequential: %d ms%n", base);
+
+        int ncpu = Runtime.getRuntime().availableProcessors();
+
+        for (int p = 1; p <= ncpu; p = p < ncpu && 2 * p > ncpu ? ncpu :
+                2 * p) {
+
+            ForkJoinPool pool = new ForkJoinPool(p);
+            try {
+                Determinizer.determinize(nfa, pool);
+
+                sw = StopWatch.get();
+                for (int i = 0; i < RUNS; i++) {
+                    sw.start();
+                    Determinizer.determinize(nfa, pool);
+                    sw.stop();
+                }
+                long t = sw.getOverallTime() / RUNS;
+                System.out.printf("%2d threads: %d ms (x%.2f)%n", p, t,
+                        t == 0 ? 0.0 : (double) base / t);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Automata shared by the tests of the core and matcher packages.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * The automaton that accepts exactly s, built by appending one character
+ * at a time.
+     */
+    public static Automaton getLiteral(String s) {
+        Automaton a = AutomatonFactory.getInstance().getNewAutomaton();
+        for (char c : s.toCharArray())
+            a = a.append(c);
+        return a;
+    }
+
+    /**
+     * [ab]* a [ab]{n} as NFA with n + 2 states; the DFA has 2^(n+1) states.
+     */
+    public static Automaton getBlowup(int n) {
+        State [] s = new State[n + 2];
+        for (int i = 0; i < s.length; i++)
+            s[i] = new State(i == n + 1 ? State.Kind.ACCEPT : State.Kind
+                    .NORMAL, i);
+
+        List<Transition> trans = new ArrayList<>();
+        trans.add(new Transition(s[0], s[0], 'a', 'b'));
+        trans.add(new Transition(s[0], s[1], 'a'));
+        for (int i = 1; i <= n; i++)
+            trans.add(new Transition(s[i], s[i + 1], 'a', 'b'));
+
+        return new Automaton(s[0], trans);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+public class TestAlphabetPartition {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestAlphabetPartition.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    @Test
+    public void testClasses() {
+        Automaton a = fact.getNewAutomaton().append('a', 'z').append('m');
+        Automaton b = fact.getNewAutomaton().append('0', '9').append('￿');
+
+        AlphabetPartition p = AlphabetPartition.of(a, b);
+
+        // [0-/] [0-9] [:-`] [a-l] [m] [n-z] [{-￾] [￿]
+        Assert.assertEquals(8, p.getClassCount());
+        Assert.assertEquals(p.classOf('a'), p.classOf('l'));
+        Assert.assertNotEquals(p.classOf('l'), p.classOf('m'));
+        Assert.assertEquals(p.classOf('m') + 1, p.classOf('n'));
+        Assert.assertEquals('m', p.getMin(p.classOf('m')));
+        Assert.assertEquals('m', p.getMax(p.classOf('m')));
+        Assert.assertEquals(0, p.classOf('\0'));
+        Assert.assertEquals(7, p.classOf('￿'));
+        Assert.assertEquals('￾', p.getMax(6));
+
+        Assert.assertEquals(1, AlphabetPartition.of(fact.getAllAccepting())
+                .getClassCount());
+    }
+
+    @Test
+    public void testDense() {
+        Automaton a = fact.getNewAutomaton();
+        for (char c = 0x100; c < 0x400; c += 3)
+            a = a.union(fact.getNewAutomaton().append(c));
+
+        AlphabetPartition p = AlphabetPartition.of(a);
+
+        Random rn = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            char c = (char) rn.nextInt(0x500);
+            int cls = p.classOf(c);
+            Assert.assertTrue(p.getMin(cls) <= c && c <= p.getMax(cls));
+        }
+    }
+
+    @Test
+    public void testAllCharacters() {
+
+        // ranges that start and end inside blocks as well as on their borders
+        Random rn = new Random(7);
+        DenseNfa.Builder b = new DenseNfa.Builder();
+        b.addState(false);
+        b.addState(true);
+        for (int i = 0; i < 40; i++) {
+            int lo = rn.nextBoolean() ? rn.nextInt(0x10000) : rn.nextInt
+                    (0x100) << 8;
+            int hi = Math.min(0xFFFF, lo + rn.nextInt(0x1000));
+            b.addTransition(0, (char) lo, (char) hi, 1);
+        }
+
+        AlphabetPartition p = AlphabetPartition.of(b.build(0));
+
+        int prev = 0;
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            int cls = p.classOf((char) c);
+            Assert.assertTrue(p.getMin(cls) <= c && c <= p.getMax(cls));
+            Assert.assertTrue(cls == prev || cls == prev + 1);
+            prev = cls;
+        }
+        Assert.assertEquals(p.getClassCount() - 1, prev);
+    }
+
+    @Test
+    public void testIntersection() {
+        Automaton a = fact.getNewAutomaton().append('a', 'k').star();
+        Automaton b = fact.getNewAutomaton().append('f', 'z').star();
+
+        Automaton i = a.intersect(b);
+
+        Assert.assertTrue(i.match(""));
+        Assert.assertTrue(i.match("fgk"));
+        Assert.assertFalse(i.match("fgl"));
+        Assert.assertFalse(i.match("afg"));
+    }
+}
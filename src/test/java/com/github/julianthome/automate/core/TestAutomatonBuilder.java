@@ -0,0 +1,101 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TestAutomatonBuilder {
+
+    final static Logger LOGGER = LoggerFactory.getLogger
+            (TestAutomatonBuilder.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    @Test
+    public void testSameLanguage() {
+
+        // (abc|de)*f[x-z]
+        Automaton ops = Fixtures.getLiteral("abc").union(Fixtures.getLiteral
+                ("de")).star().append('f').append('x', 'z');
+
+        Automaton built = fact.getBuilder().addString("abc").addString("de")
+                .starInPlace().appendInPlace('f').appendInPlace('x', 'z')
+                .build();
+
+        Assert.assertTrue(built.isCanonical());
+        Assert.assertEquals(ops.vertexSet().size(), built.vertexSet().size());
+        Assert.assertEquals(ops.edgeSet().size(), built.edgeSet().size());
+
+        String [] in = {"fx", "abcfy", "dedeabcfz", "f", "abfx", "", "fxx"};
+        for (String s : in)
+            Assert.assertEquals(s, ops.match(s), built.match(s));
+    }
+
+    @Test
+    public void testConcat() {
+
+        Automaton a = fact.getBuilder().addString("ab").addString("")
+                .concatWith(fact.getBuilder().addString("c").starInPlace()
+                        .build()).concatWith(fact.getBuilder().addString("d")
+                        .build()).build();
+
+        Assert.assertTrue(a.match("d"));
+        Assert.assertTrue(a.match("abccd"));
+        Assert.assertTrue(a.match("cd"));
+        Assert.assertFalse(a.match("ab"));
+        Assert.assertFalse(a.match("abdd"));
+
+        // nothing follows the empty language
+        Automaton empty = fact.getBuilder().concatWith(fact.getBuilder()
+                .addString("x").build())
+                .appendInPlace('y').build();
+        Assert.assertNull(empty.getShortestString());
+    }
+
+    @Test
+    public void testManyStrings() {
+
+        AutomatonBuilder<Automaton> b = fact.getBuilder();
+        for (int i = 0; i < 10000; i++)
+            b.addString(Integer.toString(i * 7));
+        Automaton a = b.build();
+
+        for (int i = 0; i < 70000; i += 3)
+            Assert.assertEquals(Integer.toString(i), i % 7 == 0, a.match
+                    (Integer.toString(i)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuiltOnce() {
+        AutomatonBuilder<Automaton> b = fact.getBuilder().addString("a");
+        b.build();
+        b.addString("b");
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import com.github.julianthome.automate.exception.BudgetExceededException;
+import com.github.julianthome.automate.exception.BudgetExceededException.Resource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TestBudget {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestBudget.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private final BasicOperations bop = BasicOperations.getInstance();
+
+    @After
+    public void reset() {
+        bop.setBudget(Budget.UNLIMITED);
+        bop.setDeferred(false);
+    }
+
+    @Test
+    public void testStates() {
+
+        Automaton a = Fixtures.getBlowup(12);
+        int states = a.vertexSet().size();
+
+        bop.setBudget(Budget.UNLIMITED.withMaxStates(1000));
+
+        try {
+            a.determinize();
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            LOGGER.debug(e.getMessage());
+            Assert.assertEquals("determinize", e.getOperation());
+            Assert.assertEquals(Resource.STATES, e.getResource());
+            Assert.assertEquals(1000, e.getLimit());
+            Assert.assertTrue(e.getStates() > 1000);
+            Assert.assertTrue(e.getTransitions() > 0);
+        }
+
+        try {
+            a.minimize();
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            Assert.assertEquals("minimize", e.getOperation());
+        }
+
+        // a failed minimization leaves the automaton as it was
+        Assert.assertEquals(states, a.vertexSet().size());
+        Assert.assertFalse(a.isCanonical());
+
+        bop.setBudget(Budget.UNLIMITED.withMaxStates(1 << 14));
+        Assert.assertEquals(1 << 13, a.determinize().vertexSet().size());
+    }
+
+    @Test
+    public void testTransitions() {
+
+        bop.setBudget(Budget.UNLIMITED.withMaxTransitions(500));
+
+        try {
+            Fixtures.getBlowup(10).determinize();
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            Assert.assertEquals(Resource.TRANSITIONS, e.getResource());
+            Assert.assertTrue(e.getTransitions() > 500);
+        }
+    }
+
+    @Test
+    public void testTime() {
+
+        bop.setBudget(Budget.UNLIMITED.withMaxMillis(0));
+
+        try {
+            Fixtures.getBlowup(20).determinize();
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            Assert.assertEquals(Resource.TIME, e.getResource());
+            Assert.assertTrue(e.getMillis() > 0);
+        }
+    }
+
+    @Test
+    public void testFallback() {
+
+        Automaton a = Fixtures.getBlowup(12);
+
+        bop.setBudget(Budget.UNLIMITED.withMaxStates(1000).withNfaFallback
+                (true));
+
+        Automaton det = a.determinize();
+        Assert.assertFalse(det.isCanonical());
+        Assert.assertEquals(a.vertexSet().size(), det.vertexSet().size());
+
+        // operations keep their results nondeterministic
+        Automaton b = a.append('c');
+        Assert.assertFalse(b.isCanonical());
+
+        String [] in = {"aaaaaaaaaaaaac", "babbbbbbbbbbbbbc", "bbbbbbbbbbbbbc",
+                "aaaaaaaaaaaaa", "c"};
+
+        for (String s : in) {
+            Assert.assertEquals(s, s.length() >= 14 && s.charAt(s.length() -
+                    14) == 'a' && s.endsWith("c"), b.match(s));
+        }
+
+        // queries need the minimal DFA
+        try {
+            b.isEmpty();
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            Assert.assertEquals(Resource.STATES, e.getResource());
+        }
+
+        try {
+            a.complement();
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            Assert.assertEquals("determinize", e.getOperation());
+        }
+    }
+
+    @Test
+    public void testIntersect() {
+
+        Automaton a = Fixtures.getBlowup(6);
+        Automaton b = fact.getNewAutomaton().append('a', 'b').star();
+
+        bop.setBudget(Budget.UNLIMITED.withMaxStates(5).withNfaFallback
+                (true));
+
+        try {
+            a.intersect(b);
+            Assert.fail();
+        } catch (BudgetExceededException e) {
+            Assert.assertEquals("intersect", e.getOperation());
+            Assert.assertTrue(e.getStates() > 5);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TestDeferred {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestDeferred.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private final BasicOperations bop = BasicOperations.getInstance();
+
+    // (abc|de)*f followed by the given literal
+    private Automaton getPattern(String lit) {
+        Automaton abc = fact.getNewAutomaton().append('a').append('b')
+                .append('c');
+        Automaton de = fact.getNewAutomaton().append('d').append('e');
+        Automaton a = abc.union(de).star().append('f');
+        for (char c : lit.toCharArray())
+            a = a.append(c);
+        return a;
+    }
+
+    private Automaton build(boolean deferred, String lit) {
+        boolean old = bop.isDeferred();
+        bop.setDeferred(deferred);
+        try {
+            return getPattern(lit);
+        } finally {
+            bop.setDeferred(old);
+        }
+    }
+
+    @Test
+    public void testSameLanguage() {
+
+        Automaton eager = build(false, "xyz");
+        Automaton lazy = build(true, "xyz");
+
+        Assert.assertTrue(eager.isCanonical());
+        Assert.assertFalse(lazy.isCanonical());
+
+        String [] in = {"fxyz", "abcfxyz", "dedeabcfxyz", "fxy", "abfxyz",
+                "", "dfxyz"};
+
+        for (String s : in) {
+            Assert.assertEquals(s, eager.match(s), lazy.match(s));
+            Assert.assertEquals(s, eager.compile().matches(s), lazy.compile()
+                    .matches(s));
+        }
+
+        int states = lazy.vertexSet().size();
+
+        Assert.assertEquals(eager.getShortestString(), lazy
+                .getShortestString());
+
+        // queries leave the receiver as it is
+        Assert.assertFalse(lazy.isCanonical());
+        Assert.assertEquals(states, lazy.vertexSet().size());
+
+        lazy.canonicalize();
+        Assert.assertTrue(lazy.isCanonical());
+        Assert.assertEquals(eager.vertexSet().size(), lazy.vertexSet().size());
+        Assert.assertEquals(eager.edgeSet().size(), lazy.edgeSet().size());
+    }
+
+    @Test
+    public void testEmpty() {
+        boolean old = bop.isDeferred();
+        bop.setDeferred(true);
+        try {
+            Automaton a = fact.getNewAutomaton().append('a');
+            Automaton b = fact.getNewAutomaton().append('b');
+            Automaton isect = a.star().intersect(b.plus());
+
+            Assert.assertFalse(isect.isCanonical());
+            Assert.assertTrue(isect.isEmpty());
+            Assert.assertFalse(isect.isCanonical());
+
+            Automaton c = a.star().complement();
+            Assert.assertFalse(c.match("aa"));
+            Assert.assertTrue(c.match("ab"));
+            Assert.assertFalse(c.isEmpty());
+        } finally {
+            bop.setDeferred(old);
+        }
+    }
+
+    @Test
+    public void testLongLiteral() {
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++)
+            sb.append((char) ('a' + i % 26));
+        String lit = sb.toString();
+
+        Automaton a = build(true, lit);
+
+        Assert.assertTrue(a.match("f" + lit));
+        Assert.assertTrue(a.match("deabcf" + lit));
+        Assert.assertFalse(a.match("f" + lit.substring(1)));
+
+        a.canonicalize();
+        Assert.assertEquals(lit.length() + 5, a.vertexSet().size());
+        Assert.assertEquals("f" + lit, a.getShortestString());
+    }
+}
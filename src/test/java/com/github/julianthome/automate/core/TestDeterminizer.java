@@ -0,0 +1,319 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestDeterminizer {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestDeterminizer.class);
+
+    @Test
+    public void testLongChain() {
+        int n = 40000;
+
+        State [] s = new State[n + 1];
+        for (int i = 0; i <= n; i++)
+            s[i] = new State(i == n ? State.Kind.ACCEPT : State.Kind.NORMAL, i);
+
+        // a digit per step; every 1000th step may be skipped
+        List<Transition> trans = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            trans.add(new Transition(s[i], s[i + 1], '0', '9'));
+            if (i % 1000 == 0)
+                trans.add(new Transition(s[i], s[i + 1]));
+        }
+
+        Automaton a = new Automaton(s[0], trans);
+        Automaton d = a.determinize();
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++)
+            sb.append('7');
+
+        Assert.assertTrue(d.match(sb.toString()));
+        Assert.assertTrue(d.match(sb.substring(40)));
+        Assert.assertFalse(d.match(sb.substring(41)));
+        Assert.assertFalse(d.match(sb.toString() + "1"));
+    }
+
+    @Test
+    public void testSubsets() {
+        // [ab]* a [ab]{6} needs a subset for every suffix of length 7
+        State [] s = new State[8];
+        for (int i = 0; i < s.length; i++)
+            s[i] = new State(i == 7 ? State.Kind.ACCEPT : State.Kind.NORMAL, i);
+
+        List<Transition> trans = new ArrayList<>();
+        trans.add(new Transition(s[0], s[0], 'a', 'b'));
+        trans.add(new Transition(s[0], s[1], 'a'));
+        for (int i = 1; i < 7; i++)
+            trans.add(new Transition(s[i], s[i + 1], 'a', 'b'));
+
+        Automaton d = new Automaton(s[0], trans).determinize();
+
+        Assert.assertEquals(128, d.vertexSet().size());
+        Assert.assertTrue(d.match("bbabbbbbb"));
+        Assert.assertFalse(d.match("bbbbbbb"));
+    }
+
+    @Test
+    public void testOverlappingLabels() {
+        State s0 = new State(0);
+        State s1 = new State(State.Kind.ACCEPT, 1);
+        State s2 = new State(2);
+        State s3 = new State(State.Kind.ACCEPT, 3);
+
+        List<Transition> trans = new ArrayList<>();
+        trans.add(new Transition(s0, s1, 'a', 'm'));
+        trans.add(new Transition(s0, s2, 'f', 'z'));
+        trans.add(new Transition(s2, s3, 'x'));
+
+        Automaton d = new Automaton(s0, trans).determinize();
+
+        Assert.assertTrue(d.match("a"));
+        Assert.assertTrue(d.match("g"));
+        Assert.assertTrue(d.match("gx"));
+        Assert.assertTrue(d.match("zx"));
+        Assert.assertFalse(d.match("z"));
+        Assert.assertFalse(d.match("ax"));
+
+        // [a-e] [f-m] [n-z] leave the start state
+        Assert.assertEquals(3, d.outgoingEdgesOf(d.getStart()).size());
+    }
+
+    // [a-z] and [m-p] to different targets; m-p is followed by x
+    private Automaton getNested() {
+        State s0 = new State(0);
+        State s1 = new State(State.Kind.ACCEPT, 1);
+        State s2 = new State(2);
+        State s3 = new State(State.Kind.ACCEPT, 3);
+
+        List<Transition> trans = new ArrayList<>();
+        trans.add(new Transition(s0, s1, 'a', 'z'));
+        trans.add(new Transition(s0, s2, 'm', 'p'));
+        trans.add(new Transition(s0, s1, 'q', 'z'));
+        trans.add(new Transition(s2, s3, 'x'));
+        return new Automaton(s0, trans);
+    }
+
+    private static void assertDisjoint(Automaton a) {
+        for (State s : a.vertexSet()) {
+            List<Transition> out = new ArrayList<>(a.getSortedTransitions(s));
+            for (int i = 1; i < out.size(); i++) {
+                CharRange prev = (CharRange) out.get(i - 1).getLabel();
+                CharRange cur = (CharRange) out.get(i).getLabel();
+                Assert.assertTrue(prev + " " + cur, prev.getMax() < cur
+                        .getMin());
+            }
+        }
+    }
+
+    @Test
+    public void testDisjointLabels() {
+
+        Automaton d = getNested().determinize();
+
+        assertDisjoint(d);
+
+        // [a-l] and [q-z] lead to the same subset but are not adjacent
+        Assert.assertEquals(3, d.outgoingEdgesOf(d.getStart()).size());
+        Assert.assertTrue(d.match("n"));
+        Assert.assertTrue(d.match("nx"));
+        Assert.assertFalse(d.match("rx"));
+    }
+
+    @Test
+    public void testPartitionTransitions() {
+
+        Automaton a = getNested();
+        a.eliminateRedundantTransitions();
+
+        // [a-l] [m-p] [m-p] [q-z]; the duplicate [q-z] is dropped
+        Assert.assertEquals(4, a.outgoingEdgesOf(a.getStart()).size());
+
+        for (Transition t : a.outgoingEdgesOf(a.getStart())) {
+            for (Transition o : a.outgoingEdgesOf(a.getStart())) {
+                TransitionLabel l = t.getLabel();
+                Assert.assertTrue(l.equals(o.getLabel()) || l.isect(o
+                        .getLabel()) == null);
+            }
+        }
+
+        for (String w : new String[]{"a", "m", "mx", "z", "zx", "x"})
+            Assert.assertEquals(w, getNested().match(w), a.match(w));
+    }
+
+    @Test
+    public void testPartitionRandomLabels() {
+
+        Random rn = new Random(21);
+        State s0 = new State(0);
+        State [] tar = new State[4];
+        for (int i = 0; i < tar.length; i++)
+            tar[i] = new State(i % 2 == 0 ? State.Kind.ACCEPT : State.Kind
+                    .NORMAL, i + 1);
+
+        List<Transition> trans = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            char lo = (char) ('a' + rn.nextInt(26));
+            char hi = (char) Math.min('z', lo + rn.nextInt(6));
+            trans.add(new Transition(s0, tar[rn.nextInt(tar.length)], lo,
+                    hi));
+        }
+        for (int i = 1; i < tar.length; i++)
+            trans.add(new Transition(tar[i], tar[0], 'x'));
+
+        Automaton a = new Automaton(s0, trans);
+        Automaton b = new Automaton(s0, trans);
+        b.eliminateRedundantTransitions();
+
+        Set<Transition> out = b.outgoingEdgesOf(b.getStart());
+        for (Transition t : out) {
+            for (Transition o : out) {
+                TransitionLabel l = t.getLabel();
+                Assert.assertTrue(l.equals(o.getLabel()) || l.isect(o
+                        .getLabel()) == null);
+            }
+        }
+
+        for (char c = 'a'; c <= 'z'; c++) {
+            String w = String.valueOf(c);
+            Assert.assertEquals(w, a.match(w), b.match(w));
+            Assert.assertEquals(w, a.match(w + "x"), b.match(w + "x"));
+        }
+    }
+
+    @Test
+    public void testPartitionDisjointLabels() {
+
+        State s0 = new State(0);
+        State s1 = new State(State.Kind.ACCEPT, 1);
+
+        List<Transition> trans = new ArrayList<>();
+        for (char c = 'a'; c <= 'z'; c += 2)
+            trans.add(new Transition(s0, s1, c));
+
+        Automaton a = new Automaton(s0, trans);
+        Set<Transition> before = new HashSet<>(a.outgoingEdgesOf(a.getStart
+                ()));
+
+        // labels are disjoint already; the transitions are left as they are
+        a.eliminateRedundantTransitions();
+        Set<Transition> after = a.outgoingEdgesOf(a.getStart());
+        Assert.assertEquals(before.size(), after.size());
+        for (Transition t : after)
+            Assert.assertTrue(before.stream().anyMatch(o -> o == t));
+    }
+
+    @Test
+    public void testParallel() {
+
+        DenseNfa nfa = DenseNfa.of(Fixtures.getBlowup(13));
+        DenseNfa seq = Determinizer.determinize(nfa);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DenseNfa par = Determinizer.determinize(nfa, pool);
+
+            Assert.assertEquals(1 << 14, seq.size());
+            Assert.assertEquals(seq.size(), par.size());
+            Assert.assertEquals(seq.getTransitionCount(), par
+                    .getTransitionCount());
+
+            for (int s = 0; s < seq.size(); s++) {
+                Assert.assertEquals(seq.isAccept(s), par.isAccept(s));
+                Assert.assertEquals(seq.getFirstTransition(s), par
+                        .getFirstTransition(s));
+            }
+
+            for (int k = 0; k < seq.getTransitionCount(); k++) {
+                Assert.assertEquals(seq.getMin(k), par.getMin(k));
+                Assert.assertEquals(seq.getMax(k), par.getMax(k));
+                Assert.assertEquals(seq.getTarget(k), par.getTarget(k));
+            }
+
+            Automaton d = getNested().determinize(pool);
+            assertDisjoint(d);
+            Assert.assertTrue(d.match("nx"));
+            Assert.assertFalse(d.match("rx"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertSorted(DenseNfa nfa, int s) {
+        for (int k = nfa.getFirstTransition(s) + 1; k < nfa
+                .getLastTransition(s); k++)
+            Assert.assertTrue(nfa.getMin(k - 1) <= nfa.getMin(k));
+    }
+
+    @Test
+    public void testTransitionOrder() {
+
+        int n = 200;
+
+        List<Character> chars = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            chars.add((char) ('a' + i));
+        Collections.shuffle(chars, new Random(3));
+
+        // state 0 has n transitions added in random order; state i + 1 has a
+        // single transition to 0, on descending characters
+        DenseNfa.Builder b = new DenseNfa.Builder();
+        for (int i = 0; i <= n; i++)
+            b.addState(i == 0);
+        for (char c : chars)
+            b.addTransition(0, c, c, 1 + (c - 'a'));
+        for (int i = 0; i < n; i++)
+            b.addTransition(i + 1, (char) ('a' + n - i), (char) ('a' + n -
+                    i), 0);
+
+        DenseNfa nfa = b.build(0);
+        assertSorted(nfa, 0);
+        for (int k = nfa.getFirstTransition(0); k < nfa.getLastTransition
+                (0); k++)
+            Assert.assertEquals(1 + nfa.getMin(k) - 'a', nfa.getTarget(k));
+
+        DenseNfa rev = nfa.reverse();
+        assertSorted(rev, 0);
+        for (int k = rev.getFirstTransition(0); k < rev.getLastTransition
+                (0); k++)
+            Assert.assertEquals('a' + n - rev.getMin(k) + 1, rev.getTarget(k));
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestDictionary {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestDictionary.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Automaton getUnion(List<String> words) {
+        Automaton a = null;
+        for (String w : words) {
+            Automaton b = fact.getNewAutomaton();
+            for (char c : w.toCharArray())
+                b = b.append(c);
+            a = a == null ? b : a.union(b);
+        }
+        return a;
+    }
+
+    @Test
+    public void testSameAsUnion() {
+
+        List<String> words = Arrays.asList("atop", "stop", "stops", "tap",
+                "taps", "tip", "tips", "top", "tops");
+
+        Automaton dict = fact.getDictionaryAutomaton(words.iterator());
+        Automaton union = getUnion(words);
+
+        Assert.assertTrue(dict.isCanonical());
+        Assert.assertEquals(union.vertexSet().size(), dict.vertexSet().size());
+        Assert.assertEquals(union.edgeSet().size(), dict.edgeSet().size());
+
+        for (String w : words)
+            Assert.assertTrue(w, dict.match(w));
+
+        for (String w : new String[]{"", "ta", "tapss", "sto", "atops", "x"})
+            Assert.assertFalse(w, dict.match(w));
+
+        // minimizing again must not change anything
+        Automaton min = new Automaton(dict);
+        min.minimize();
+        Assert.assertEquals(dict.vertexSet().size(), min.vertexSet().size());
+    }
+
+    @Test
+    public void testRandom() {
+
+        Random rn = new Random(7);
+        TreeSet<String> set = new TreeSet<>();
+        while (set.size() < 2000) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(8);
+            for (int i = 0; i < len; i++)
+                sb.append((char) ('a' + rn.nextInt(4)));
+            set.add(sb.toString());
+        }
+
+        Automaton dict = fact.getDictionaryAutomaton(set.iterator());
+
+        Automaton min = new Automaton(dict);
+        min.minimize();
+        Assert.assertEquals(min.vertexSet().size(), dict.vertexSet().size());
+
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(9);
+            for (int k = 0; k < len; k++)
+                sb.append((char) ('a' + rn.nextInt(4)));
+            String s = sb.toString();
+            Assert.assertEquals(s, set.contains(s), dict.match(s));
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+
+        Automaton none = fact.getDictionaryAutomaton(Collections
+                .<String>emptyIterator());
+        Assert.assertTrue(none.isEmpty());
+        Assert.assertFalse(none.match(""));
+
+        Automaton eps = fact.getDictionaryAutomaton(Arrays.asList("", "",
+                "a", "a", "ab").iterator());
+        Assert.assertTrue(eps.match(""));
+        Assert.assertTrue(eps.match("a"));
+        Assert.assertTrue(eps.match("ab"));
+        Assert.assertFalse(eps.match("b"));
+        Assert.assertEquals(3, eps.vertexSet().size());
+
+        // adjacent labels to the same state become one range
+        Automaton rng = fact.getDictionaryAutomaton(Arrays.asList("a", "b",
+                "c", "e").iterator());
+        Assert.assertEquals(2, rng.vertexSet().size());
+        Assert.assertEquals(2, rng.edgeSet().size());
+        Assert.assertTrue(rng.match("b"));
+        Assert.assertFalse(rng.match("d"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsorted() {
+        fact.getDictionaryAutomaton(Arrays.asList("b", "a").iterator());
+    }
+
+    @Test
+    public void testFile() throws IOException {
+
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            words.add("sku-" + i);
+        Collections.sort(words);
+
+        File f = tmp.newFile("words.txt");
+        Files.write(f.toPath(), words, StandardCharsets.UTF_8);
+
+        Automaton dict = fact.getDictionaryAutomaton(f.toPath());
+
+        Assert.assertTrue(dict.match("sku-0"));
+        Assert.assertTrue(dict.match("sku-999"));
+        Assert.assertFalse(dict.match("sku-1000"));
+        Assert.assertFalse(dict.match("sku-"));
+        String shortest = dict.getShortestString();
+        Assert.assertEquals(5, shortest.length());
+        Assert.assertTrue(words.contains(shortest));
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestEpsilonClosure {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestEpsilonClosure.class);
+
+    private State [] getStates(int n, int accept) {
+        State [] s = new State[n];
+        for (int i = 0; i < n; i++)
+            s[i] = new State(i == accept ? State.Kind.ACCEPT : State.Kind
+                    .NORMAL, i);
+        return s;
+    }
+
+    // 0 -> 1 -> 2 -> 0 and 2 -> 3 via epsilon; 1 -a-> 4, 3 -b-> 4
+    private Automaton getCycle(State [] s) {
+        List<Transition> trans = new ArrayList<>();
+        trans.add(new Transition(s[0], s[1]));
+        trans.add(new Transition(s[1], s[2]));
+        trans.add(new Transition(s[2], s[0]));
+        trans.add(new Transition(s[2], s[3]));
+        trans.add(new Transition(s[1], s[4], 'a'));
+        trans.add(new Transition(s[3], s[4], 'b'));
+        trans.add(new Transition(s[4], s[0], 'c'));
+        return new Automaton(s[0], trans);
+    }
+
+    @Test
+    public void testCycle() {
+
+        State [] s = getStates(5, 4);
+        Automaton a = getCycle(s);
+
+        int [][] cl = DenseNfa.of(a, s).getClosures();
+
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 3}, cl[0]);
+        Assert.assertSame(cl[0], cl[1]);
+        Assert.assertSame(cl[0], cl[2]);
+        Assert.assertArrayEquals(new int[]{3}, cl[3]);
+        Assert.assertArrayEquals(new int[]{4}, cl[4]);
+
+        // every state of the cycle sees the whole cycle
+        for (int i = 0; i < 3; i++)
+            Assert.assertEquals(4, a.getEpsilonClosure().get(s[i]).size());
+    }
+
+    @Test
+    public void testLongCycle() {
+
+        int n = 50000;
+        State [] s = getStates(n + 1, n);
+
+        List<Transition> trans = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            trans.add(new Transition(s[i], s[(i + 1) % n]));
+        trans.add(new Transition(s[n - 1], s[n], 'x'));
+
+        Automaton a = new Automaton(s[0], trans);
+        int [][] cl = DenseNfa.of(a, s).getClosures();
+
+        Assert.assertEquals(n, cl[0].length);
+        Assert.assertSame(cl[0], cl[n - 1]);
+        Assert.assertEquals(1, cl[n].length);
+
+        Automaton d = a.determinize();
+        Assert.assertTrue(d.match("x"));
+        Assert.assertFalse(d.match("xx"));
+    }
+
+    @Test
+    public void testEliminateEpsilons() {
+
+        Automaton a = getCycle(getStates(5, 4));
+        Automaton e = (Automaton) BasicOperations.getInstance()
+                .eliminateEpsilons(a);
+
+        Assert.assertTrue(e.edgeSet().stream().noneMatch(Transition::isEpsilon));
+
+        String [] in = {"", "a", "b", "c", "acb", "bca", "aca", "ab", "acbc"};
+        for (String w : in)
+            Assert.assertEquals(w, a.match(w), e.match(w));
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class TestFrozenAutomaton {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestFrozenAutomaton
+            .class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private final BasicOperations bop = BasicOperations.getInstance();
+
+    private final String [] in = {"", "f", "abcf", "deabcfxy", "dfxy",
+            "abcabc", "fx", "fxyz", "dedef", "abcde"};
+
+    @After
+    public void reset() {
+        bop.setDeferred(false);
+    }
+
+    // (abc|de)*f(xy)?
+    private Automaton getPattern() {
+        Automaton abc = fact.getNewAutomaton().append('a').append('b')
+                .append('c');
+        Automaton de = fact.getNewAutomaton().append('d').append('e');
+        Automaton xy = fact.getNewAutomaton().append('x').append('y');
+        return abc.union(de).star().append('f').concat(xy.optional());
+    }
+
+    private void assertSameLanguage(Automaton a, FrozenAutomaton f) {
+        for (String s : in)
+            Assert.assertEquals(s, a.match(s), f.match(s));
+    }
+
+    @Test
+    public void testDfa() {
+
+        Automaton a = getPattern();
+        FrozenAutomaton f = a.freeze();
+
+        Assert.assertTrue(f.isDeterministic());
+        Assert.assertTrue(f.isMinimal());
+        Assert.assertEquals(a.vertexSet().size(), f.size());
+        Assert.assertEquals(a.edgeSet().size(), f.getTransitionCount());
+        Assert.assertFalse(f.isEmpty());
+        Assert.assertEquals("f", f.getShortestString());
+
+        assertSameLanguage(a, f);
+    }
+
+    @Test
+    public void testNfa() {
+
+        bop.setDeferred(true);
+
+        // built with epsilon transitions
+        Automaton a = getPattern();
+        FrozenAutomaton f = a.freeze();
+
+        Assert.assertFalse(f.isMinimal());
+        Assert.assertEquals(a.getShortestString(), f.getShortestString());
+
+        assertSameLanguage(a, f);
+
+        Automaton b = f.toAutomaton();
+        Assert.assertFalse(b.isCanonical());
+        assertSameLanguage(b, f);
+    }
+
+    @Test
+    public void testEmpty() {
+
+        FrozenAutomaton f = fact.getNewAutomaton().freeze();
+
+        Assert.assertTrue(f.isEmpty());
+        Assert.assertNull(f.getShortestString());
+        Assert.assertFalse(f.match(""));
+        Assert.assertTrue(f.toAutomaton().isEmpty());
+
+        FrozenAutomaton eps = fact.getEmtpyAutomaton().freeze();
+
+        Assert.assertFalse(eps.isEmpty());
+        Assert.assertEquals("", eps.getShortestString());
+        Assert.assertTrue(eps.match(""));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        FrozenAutomaton f = getPattern().freeze();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        f.write(new DataOutputStream(bos));
+
+        FrozenAutomaton g = FrozenAutomaton.read(new DataInputStream(new
+                ByteArrayInputStream(bos.toByteArray())));
+
+        Assert.assertEquals(f.size(), g.size());
+        Assert.assertEquals(f.getTransitionCount(), g.getTransitionCount());
+        Assert.assertEquals(f.toDot(), g.toDot());
+
+        Automaton a = g.toAutomaton();
+        Assert.assertTrue(a.isCanonical());
+        assertSameLanguage(a, g);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformed() throws IOException {
+        FrozenAutomaton.read(new DataInputStream(new ByteArrayInputStream
+                (new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+    }
+
+    /**
+     * @return a serialized automaton with two states and the given accept
+     * bits, transition counts and transitions
+     */
+    private byte [] getFrozen(long accept, int [] counts, int m, char []
+            ranges, int [] targets) throws IOException {
+
+        ByteArrayOutputStream hdr = new ByteArrayOutputStream();
+        getPattern().freeze().write(new DataOutputStream(hdr));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.write(hdr.toByteArray(), 0, 4);
+        out.writeInt(2);
+        out.writeInt(m);
+        out.writeInt(0);
+        out.writeBoolean(false);
+        out.writeLong(accept);
+        for (int c : counts)
+            out.writeInt(c);
+        for (int k = 0; k < targets.length; k++) {
+            out.writeChar(ranges[2 * k]);
+            out.writeChar(ranges[2 * k + 1]);
+            out.writeInt(targets[k]);
+        }
+        return bos.toByteArray();
+    }
+
+    private static void assertMalformed(byte [] b) {
+        try {
+            FrozenAutomaton.read(new DataInputStream(new ByteArrayInputStream
+                    (b)));
+            Assert.fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMalformedCounts() throws IOException {
+
+        char [] ab = {'a', 'a', 'b', 'b'};
+
+        FrozenAutomaton f = FrozenAutomaton.read(new DataInputStream(new
+                ByteArrayInputStream(getFrozen(2, new int[]{1, 0}, 1, ab,
+                new int[]{1}))));
+        Assert.assertTrue(f.match("a"));
+
+        // counts that sum up to m, but are negative
+        assertMalformed(getFrozen(2, new int[]{6, -5}, 1, ab, new int[]{1}));
+        // accept bit of a third state
+        assertMalformed(getFrozen(4, new int[]{1, 0}, 1, ab, new int[]{1}));
+        // ranges out of order
+        assertMalformed(getFrozen(2, new int[]{2, 0}, 2, new char[]{'b', 'b',
+                'a', 'a'}, new int[]{1, 1}));
+    }
+}
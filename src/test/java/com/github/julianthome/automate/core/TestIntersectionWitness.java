@@ -0,0 +1,120 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TestIntersectionWitness {
+
+    final static Logger LOGGER = LoggerFactory.getLogger
+            (TestIntersectionWitness.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private final BasicOperations bop = BasicOperations.getInstance();
+
+    @After
+    public void reset() {
+        bop.setDeferred(false);
+    }
+
+    // (a|b)*a(a|b){n}
+    private Automaton getSuffix(int n) {
+        Automaton a = fact.getNewAutomaton().append('a', 'b').star().append
+                ('a');
+        for (int i = 0; i < n; i++)
+            a = a.append('a', 'b');
+        return a;
+    }
+
+    @Test
+    public void testWitness() {
+
+        // nondeterministic operands with epsilon transitions
+        bop.setDeferred(true);
+
+        Automaton [] aut = {
+                Fixtures.getLiteral("abc").union(Fixtures.getLiteral("de"))
+                        .star(),
+                Fixtures.getLiteral("de").plus().append('x'),
+                Fixtures.getLiteral("ab").union(Fixtures.getLiteral("de"))
+                        .star().concat(Fixtures.getLiteral("de")),
+                Fixtures.getLiteral("x").optional(),
+                getSuffix(2),
+                fact.getNewAutomaton().append('a', 'z').star()
+        };
+
+        for (Automaton a : aut) {
+            for (Automaton b : aut) {
+                String w = a.findIntersectionWitness(b);
+                String s = a.intersect(b).getShortestString();
+
+                Assert.assertEquals(s == null, a.isEmptyIntersection(b));
+
+                if (s == null) {
+                    Assert.assertNull(w);
+                } else {
+                    Assert.assertEquals(s.length(), w.length());
+                    Assert.assertTrue(a.match(w));
+                    Assert.assertTrue(b.match(w));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDisjoint() {
+
+        Automaton a = Fixtures.getLiteral("ab").star();
+        Automaton b = Fixtures.getLiteral("ab").star().append('a');
+
+        Assert.assertTrue(a.isEmptyIntersection(b));
+        Assert.assertNull(a.findIntersectionWitness(b));
+        Assert.assertEquals("", a.findIntersectionWitness(a));
+    }
+
+    @Test
+    public void testLazy() {
+
+        bop.setDeferred(true);
+
+        // determinizing the operands would take 2^31 states
+        Automaton a = getSuffix(30);
+        Automaton b = Fixtures.getLiteral("a").plus().concat(getSuffix(29));
+
+        String w = a.findIntersectionWitness(b);
+        LOGGER.debug(w);
+
+        Assert.assertEquals(31, w.length());
+        Assert.assertTrue(a.match(w));
+        Assert.assertTrue(b.match(w));
+    }
+}
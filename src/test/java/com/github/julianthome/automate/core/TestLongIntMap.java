@@ -0,0 +1,82 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestLongIntMap {
+
+    @Test
+    public void testRandom() {
+
+        Random rnd = new Random(7);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> ref = new HashMap<>();
+
+        for (int i = 0; i < 100000; i++) {
+            // small keys collide often, large ones stress the hash
+            long key = i % 2 == 0 ? rnd.nextInt(5000) : rnd.nextLong();
+            int val = rnd.nextInt(Integer.MAX_VALUE);
+            map.put(key, val);
+            ref.put(key, val);
+        }
+
+        Assert.assertEquals(ref.size(), map.size());
+
+        for (Map.Entry<Long, Integer> e : ref.entrySet())
+            Assert.assertEquals((int) e.getValue(), map.get(e.getKey()));
+
+        for (int i = 0; i < 1000; i++) {
+            long key = 5000 + rnd.nextInt(1000);
+            Assert.assertEquals(-1, map.get(key));
+        }
+    }
+
+    @Test
+    public void testStates() {
+
+        State s = new State(3);
+        State t = new State(State.Kind.ACCEPT, 3);
+
+        Assert.assertEquals(s, t);
+        Assert.assertEquals(s.hashCode(), t.hashCode());
+
+        // new states must not reuse the ids of the given ones
+        Automaton a = new Automaton(s, Collections.singletonList(new
+                Transition(s, new State(State.Kind.ACCEPT, 9), 'a', 'a')));
+        Automaton b = a.append('b');
+
+        Assert.assertTrue(b.match("ab"));
+        Assert.assertFalse(b.match("a"));
+    }
+}
@@ -373,7 +373,64 @@ public class TestMatch {
         Assert.assertFalse(concat.match("Linu"));
     }
 
+    @Test
+    public void testRepeatBounds() {
+
+        Automaton ab = new Automaton().append('a').append('b');
+        int states = ab.vertexSet().size();
+
+        String [] in = {"", "ab", "abab", "ababab", "abababab"};
+
+        Automaton [] aut = {ab.repeat(0, 2), ab.repeat(2, 3), ab.repeatMin
+                (2), ab.repeatMax(2), ab.star(), ab.plus(), ab.optional()};
+
+        boolean [][] exp = {
+                {true, true, true, false, false},
+                {false, false, true, true, false},
+                {false, false, true, true, true},
+                {false, true, true, false, false},
+                {true, true, true, true, true},
+                {false, true, true, true, true},
+                {true, true, false, false, false}
+        };
+
+        for (int i = 0; i < aut.length; i++) {
+            for (int j = 0; j < in.length; j++)
+                Assert.assertEquals(i + " " + in[j], exp[i][j], aut[i].match
+                        (in[j]));
+        }
+
+        // operands are left untouched
+        Assert.assertEquals(states, ab.vertexSet().size());
+        Assert.assertTrue(ab.match("ab"));
+        Assert.assertFalse(ab.match("abab"));
+    }
 
-}
+    @Test
+    public void testMatcherInvalidation() {
+
+        Automaton ab = new Automaton().append('a').append('b');
+        State acc = ab.getAcceptStates().iterator().next();
 
+        Assert.assertTrue(ab.match("ab"));
+        Assert.assertFalse(ab.match("c"));
 
+        Transition t = new Transition(ab.getStart(), acc, 'c');
+        ab.addTransition(t);
+        Assert.assertTrue(ab.match("c"));
+
+        ab.removeEdge(t);
+        Assert.assertFalse(ab.match("c"));
+        Assert.assertTrue(ab.match("ab"));
+
+        // kinds of states are changed in place
+        State mid = ab.getConnectedOutStates(ab.getStart()).iterator().next();
+        Assert.assertFalse(ab.match("a"));
+        mid.setKind(State.Kind.ACCEPT);
+        Assert.assertTrue(ab.match("a"));
+        Assert.assertEquals(ab.compile().matches("a"), ab.match("a"));
+
+        ab.eliminateAcceptStates();
+        Assert.assertFalse(ab.match("ab"));
+    }
+}
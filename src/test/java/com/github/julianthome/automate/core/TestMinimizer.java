@@ -0,0 +1,174 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestMinimizer {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestMinimizer.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private final Minimizer [] strategies = {new HopcroftMinimizer(), new
+            ValmariMinimizer(), new BrzozowskiMinimizer(), new
+            RevuzMinimizer(), new AutoMinimizer()};
+
+    // a DFA over digits that counts modulo m and accepts 0, with every
+    // state duplicated
+    private Automaton getRedundant(int m) {
+        State [] s = new State[2 * m];
+        for (int i = 0; i < s.length; i++)
+            s[i] = new State(i % m == 0 ? State.Kind.ACCEPT : State.Kind
+                    .NORMAL, i);
+
+        List<Transition> trans = new ArrayList<>();
+        for (int i = 0; i < s.length; i++) {
+            int nxt = (i % m + 1) % m + (i < m ? m : 0);
+            trans.add(new Transition(s[i], s[nxt], '0', '4'));
+            trans.add(new Transition(s[i], s[nxt], '5', '9'));
+        }
+
+        return new Automaton(s[0], trans);
+    }
+
+    // a dictionary of words with shared prefixes and suffixes
+    private Automaton getWords() {
+        Automaton a = fact.getNewAutomaton().append('x');
+        for (String w : new String[]{"tap", "taps", "top", "tops", "stop",
+                "stops", "atop", "tip", "tips"}) {
+            Automaton b = fact.getNewAutomaton();
+            for (char c : w.toCharArray())
+                b = b.append(c);
+            a = a.union(b);
+        }
+        return a;
+    }
+
+    private Automaton minimize(Minimizer m, Automaton a) {
+        Automaton cp = new Automaton(a);
+        m.minimize(cp);
+        return cp;
+    }
+
+    private void checkStrategies(Automaton a, int states, String alphabet) {
+        Random rn = new Random(5);
+        for (Minimizer m : strategies) {
+            Automaton min = minimize(m, a);
+            Assert.assertEquals(m.getClass().getSimpleName(), states, min
+                    .vertexSet().size());
+            for (int i = 0; i < 300; i++) {
+                String s = random(rn, alphabet, rn.nextInt(10));
+                Assert.assertEquals(s, a.match(s), min.match(s));
+            }
+        }
+    }
+
+    private static String random(Random rn, String alphabet, int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < len; j++)
+            sb.append(alphabet.charAt(rn.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+
+    @Test
+    public void testNfa() {
+        Automaton a = Fixtures.getBlowup(6);
+        Automaton m = new Automaton(a);
+        m.minimize();
+
+        Assert.assertEquals(128, m.vertexSet().size());
+
+        Random rn = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            String s = random(rn, "abc", rn.nextInt(12));
+            Assert.assertEquals(s, a.match(s), m.match(s));
+        }
+    }
+
+    @Test
+    public void testRedundant() {
+        Automaton a = getRedundant(7);
+        Automaton m = new Automaton(a);
+        m.minimize();
+
+        Assert.assertEquals(7, m.vertexSet().size());
+        // the two digit ranges are merged into one label
+        Assert.assertEquals(7, m.edgeSet().size());
+        Assert.assertTrue(m.match(""));
+        Assert.assertTrue(m.match("1234567"));
+        Assert.assertFalse(m.match("123456"));
+    }
+
+    @Test
+    public void testEmpty() {
+        Automaton a = fact.getNewAutomaton().append('a').intersect(fact
+                .getNewAutomaton().append('b'));
+        a.minimize();
+
+        Assert.assertEquals(1, a.vertexSet().size());
+        Assert.assertEquals(0, a.edgeSet().size());
+        Assert.assertFalse(a.match(""));
+        Assert.assertFalse(a.match("a"));
+    }
+
+    @Test
+    public void testStrategies() {
+        checkStrategies(Fixtures.getBlowup(5), 64, "ab");
+        checkStrategies(getRedundant(6), 6, "05");
+        checkStrategies(getWords(), 10, "apostix");
+        checkStrategies(fact.getNewAutomaton().append('a').intersect(fact
+                .getNewAutomaton().append('b')), 1, "ab");
+        checkStrategies(fact.getAllAccepting(), 1, "ab");
+    }
+
+    @Test
+    public void testAcyclic() {
+        Automaton a = getWords();
+        Assert.assertTrue(AbstractMinimizer.isAcyclic(DenseNfa.of(a),
+                AbstractMinimizer.getLiveStates(DenseNfa.of(a))));
+        Assert.assertFalse(AbstractMinimizer.isAcyclic(DenseNfa.of
+                (getRedundant(3)), AbstractMinimizer.getLiveStates(DenseNfa
+                .of(getRedundant(3)))));
+    }
+
+    @Test
+    public void testLarge() {
+        Automaton a = getRedundant(5000);
+
+        for (Minimizer m : new Minimizer[]{new HopcroftMinimizer(), new
+                ValmariMinimizer()})
+            Assert.assertEquals(5000, minimize(m, a).vertexSet().size());
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class TestTransitionLabel {
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    @Test
+    public void testInterned() {
+
+        Assert.assertSame(CharRange.of('a'), CharRange.of('a', 'a'));
+        Assert.assertSame(CharRange.ANY, CharRange.of(Character.MAX_VALUE,
+                Character.MIN_VALUE));
+        Assert.assertSame(CharRange.of('x'), CharRange.of('x').clone());
+        Assert.assertSame(Epsilon.EPSILON, new Transition(new State(0), new
+                State(1)).getLabel());
+
+        CharRange r = CharRange.of('z', 'a');
+        Assert.assertEquals('a', r.getMin());
+        Assert.assertEquals('z', r.getMax());
+        Assert.assertEquals(r, CharRange.of('a', 'z'));
+    }
+
+    @Test
+    public void testSharedByCopies() {
+
+        Automaton a = fact.getNewAutomaton().append('a', 'z').append('x')
+                .star();
+        Automaton b = new Automaton(a);
+
+        Map<TransitionLabel, Boolean> labels = new IdentityHashMap<>();
+        for (Transition t : a.edgeSet())
+            labels.put(t.getLabel(), true);
+
+        for (Transition t : b.edgeSet())
+            Assert.assertTrue(labels.containsKey(t.getLabel()));
+    }
+}
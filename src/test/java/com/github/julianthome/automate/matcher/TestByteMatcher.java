@@ -0,0 +1,125 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.Automaton;
+import com.github.julianthome.automate.core.AutomatonFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class TestByteMatcher {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestByteMatcher.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private static byte [] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // code points from all encoding lengths including the plane borders
+    private static final int [] CPS = {'a', 'z', 0x7F, 0x80, 0xE9, 0x7FF,
+            0x800, 0x20AC, 0xD7FF, 0xE000, 0xFFFD, 0xFFFF, 0x10000, 0x1F600,
+            0x10FFFF};
+
+    private Automaton getMixed() {
+        // [a-ÿ] [ࠀ-\ud7ff]* (\ud83d[\ude00-\ude4f])?
+        Automaton emoji = fact.getNewAutomaton().append('\ud83d').append
+                ('\ude00', '\ude4f').optional();
+        return fact.getNewAutomaton().append('a', 'ÿ').concat(fact
+                .getNewAutomaton().append('ࠀ', '\ud7ff').star()).concat
+                (emoji);
+    }
+
+    @Test
+    public void testSimple() {
+        ByteMatcher m = ByteMatcher.compile(getMixed());
+
+        Assert.assertTrue(m.matches(utf8("a")));
+        Assert.assertTrue(m.matches(utf8("é€")));
+        Assert.assertFalse(m.matches(utf8("a\uFFFD")));
+        Assert.assertTrue(m.matches(utf8("b😀")));
+        Assert.assertTrue(m.matches(utf8("b€🙏")));
+        Assert.assertFalse(m.matches(utf8("b🙐")));
+        Assert.assertFalse(m.matches(utf8("")));
+        Assert.assertFalse(m.matches(utf8("ab")));
+
+        // overlong and truncated encodings
+        Assert.assertFalse(m.matches(new byte[]{(byte) 0xC1, (byte) 0xA1}));
+        Assert.assertFalse(m.matches(new byte[]{(byte) 0xC3}));
+
+        byte [] b = utf8("xéy");
+        Assert.assertTrue(m.matches(b, 1, 2));
+        Assert.assertTrue(m.matches(ByteBuffer.wrap(b, 1, 2)));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(b.length);
+        direct.put(b).flip().position(1);
+        direct.limit(3);
+        Assert.assertTrue(m.matches(direct));
+        Assert.assertEquals(1, direct.position());
+    }
+
+    @Test
+    public void testAllAccepting() {
+        ByteMatcher m = ByteMatcher.compile(fact.getAllAccepting());
+
+        for (int cp : CPS)
+            Assert.assertTrue(m.matches(utf8(new String(Character.toChars
+                    (cp)))));
+
+        // an encoded lone surrogate is not valid UTF-8
+        Assert.assertFalse(m.matches(new byte[]{(byte) 0xED, (byte) 0xA0,
+                (byte) 0x80}));
+        Assert.assertFalse(m.matches(new byte[]{(byte) 0xF4, (byte) 0x90,
+                (byte) 0x80, (byte) 0x80}));
+    }
+
+    @Test
+    public void testRandom() {
+        Automaton a = getMixed();
+        ByteMatcher m = ByteMatcher.compile(a);
+
+        Random rn = new Random(13);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(4);
+            for (int j = 0; j < len; j++) {
+                int cp = rn.nextInt(3) == 0 ? CPS[rn.nextInt(CPS.length)] :
+                        0x1F5F0 + rn.nextInt(0x70);
+                sb.appendCodePoint(cp);
+            }
+            String s = sb.toString();
+            Assert.assertEquals(s, a.match(s), m.matches(utf8(s)));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.*;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestCompiledMatcher {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestCompiledMatcher.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private Automaton getSimpleAutomaton() {
+        Automaton a1 = fact.getNewAutomaton().append('a', 'b').append('t')
+                .append('e');
+        Automaton a3 = fact.getNewAutomaton().append('x').append('y')
+                .append('z');
+        return a1.union(a3);
+    }
+
+    // a nondeterministic automaton with overlapping labels and epsilons
+    private Automaton getNfa() {
+        State s0 = new State(0);
+        State s1 = new State(1);
+        State s2 = new State(State.Kind.ACCEPT, 2);
+        State s3 = new State(3);
+        State s4 = new State(State.Kind.ACCEPT, 4);
+
+        return new Automaton(s0, Arrays.asList(
+                new Transition(s0, s1, 'a', 'z'),
+                new Transition(s0, s3, 'm', 'p'),
+                new Transition(s1, s2, '0', '9'),
+                new Transition(s3, s4, 'x'),
+                new Transition(s2, s0),
+                new Transition(s4, s4, 'x')));
+    }
+
+    @Test
+    public void testSimple() {
+        CompiledMatcher m = getSimpleAutomaton().compile();
+
+        Assert.assertTrue(m.matches("ate"));
+        Assert.assertTrue(m.matches("bte"));
+        Assert.assertTrue(m.matches("xyz"));
+        Assert.assertFalse(m.matches(""));
+        Assert.assertFalse(m.matches("xy"));
+        Assert.assertFalse(m.matches("xyzz"));
+    }
+
+    @Test
+    public void testKleene() {
+        CompiledMatcher m = getSimpleAutomaton().star().compile();
+
+        Assert.assertTrue(m.matches(""));
+        Assert.assertTrue(m.matches("xyzxyzxyzate"));
+        Assert.assertFalse(m.matches("btee"));
+    }
+
+    @Test
+    public void testNfa() {
+        CompiledMatcher m = getNfa().compile();
+
+        Assert.assertTrue(m.matches("a0"));
+        Assert.assertTrue(m.matches("m0"));
+        Assert.assertTrue(m.matches("mx"));
+        Assert.assertTrue(m.matches("mxxx"));
+        Assert.assertTrue(m.matches("a0b1"));
+        Assert.assertTrue(m.matches("a0mxx"));
+        Assert.assertFalse(m.matches("a"));
+        Assert.assertFalse(m.matches("ax"));
+        Assert.assertFalse(m.matches("a0b"));
+    }
+
+    @Test
+    public void testNfaMatcher() {
+        Automaton a = getNfa();
+        NfaMatcher nm = NfaMatcher.of(a);
+        CompiledMatcher cm = a.compile();
+
+        Random rn = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(8);
+            for (int j = 0; j < len; j++)
+                sb.append("ambx09".charAt(rn.nextInt(6)));
+            String s = sb.toString();
+            Assert.assertEquals(s, cm.matches(s), nm.matches(s));
+        }
+    }
+
+    @Test
+    public void testNfaBlowup() {
+        // (a|a)*b without determinization
+        State s0 = new State(0);
+        State s1 = new State(1);
+        State s2 = new State(2);
+        State s3 = new State(State.Kind.ACCEPT, 3);
+
+        Automaton a = new Automaton(s0, Arrays.asList(
+                new Transition(s0, s1, 'a'),
+                new Transition(s0, s2, 'a'),
+                new Transition(s1, s0),
+                new Transition(s2, s0),
+                new Transition(s0, s3, 'b')));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+            sb.append('a');
+
+        Assert.assertFalse(a.match(sb.toString()));
+        Assert.assertTrue(a.match(sb.append('b').toString()));
+    }
+
+    @Test
+    public void testCursor() throws IOException {
+        MatchCursor c = getSimpleAutomaton().star().compile().cursor();
+
+        Assert.assertTrue(c.isAccepting());
+        Assert.assertTrue(c.feed("xy"));
+        Assert.assertFalse(c.isAccepting());
+        Assert.assertTrue(c.feed(new char[]{'-', 'z', 'a'}, 1, 2));
+        Assert.assertTrue(c.feed(CharBuffer.wrap("te")));
+        Assert.assertTrue(c.isAccepting());
+        Assert.assertEquals(6L, c.getConsumed());
+
+        CharBuffer cb = CharBuffer.wrap("xyzq-ate");
+        Assert.assertFalse(c.feed(cb));
+        Assert.assertTrue(c.isDead());
+        Assert.assertEquals(4, cb.position());
+
+        c.reset();
+        Assert.assertFalse(c.feed(new StringReader("atextzbte")));
+        c.reset();
+        Assert.assertTrue(c.feed(new StringReader("atexyzbte")));
+        Assert.assertTrue(c.isAccepting());
+    }
+
+    @Test
+    public void testEmptyLanguage() {
+        Automaton a = fact.getNewAutomaton().append('a').intersect(fact
+                .getNewAutomaton().append('b'));
+        CompiledMatcher m = a.compile();
+
+        Assert.assertFalse(m.matches(""));
+        Assert.assertFalse(m.matches("a"));
+        Assert.assertFalse(m.matches("b"));
+    }
+
+    @Test
+    public void testRandom() {
+        Automaton a = fact.getAllAccepting().concat
+                (fact.getNewAutomaton().append('x').append('0', '5'));
+        CompiledMatcher m = a.compile();
+
+        Random rn = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(8);
+            for (int j = 0; j < len; j++)
+                sb.append("xy0369".charAt(rn.nextInt(6)));
+            String s = sb.toString();
+            Assert.assertEquals(s, a.match(s), m.matches(s));
+        }
+    }
+
+    @Test
+    public void testMatchAll() {
+        Automaton a = getNfa();
+        CompiledMatcher m = a.compile();
+        NfaMatcher n = NfaMatcher.of(a);
+
+        Random rn = new Random(3);
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(6);
+            for (int j = 0; j < len; j++)
+                sb.append("ax0nx".charAt(rn.nextInt(5)));
+            items.add(sb.toString());
+        }
+
+        BitSet exp = new BitSet();
+        for (int i = 0; i < items.size(); i++) {
+            if (m.matches(items.get(i)))
+                exp.set(i);
+        }
+
+        Assert.assertEquals(exp, m.matchAll(items));
+        Assert.assertEquals(exp, m.matchAll(items.toArray(new String[0])));
+        Assert.assertEquals(exp, n.matchAll(new LinkedList<>(items)));
+
+        ExecutorService ex = Executors.newFixedThreadPool(3);
+        try {
+            Assert.assertEquals(exp, n.matchAll(items, ex));
+        } finally {
+            ex.shutdown();
+        }
+
+        Assert.assertTrue(m.matchAll(new String[0]).isEmpty());
+    }
+}
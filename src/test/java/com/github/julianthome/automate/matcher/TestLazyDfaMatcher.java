@@ -0,0 +1,120 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.*;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+public class TestLazyDfaMatcher {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestLazyDfaMatcher.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private String random(Random rn, int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int j = 0; j < len; j++)
+            sb.append(rn.nextBoolean() ? 'a' : 'b');
+        return sb.toString();
+    }
+
+    @Test
+    public void testCache() {
+        Automaton a = fact.getNewAutomaton().append('a', 'b').append('t')
+                .append('e');
+        LazyDfaMatcher m = LazyDfaMatcher.of(a);
+
+        Assert.assertTrue(m.matches("ate"));
+        Assert.assertTrue(m.matches("bte"));
+        Assert.assertFalse(m.matches("at"));
+        Assert.assertFalse(m.matches("xte"));
+
+        long misses = m.getMisses();
+        Assert.assertTrue(m.matches("ate"));
+        Assert.assertEquals(misses, m.getMisses());
+        Assert.assertEquals(0, m.getEvictions());
+        Assert.assertEquals(0, m.getFallbacks());
+    }
+
+    @Test
+    public void testEviction() {
+        Automaton a = Fixtures.getBlowup(8);
+        NfaMatcher nfa = NfaMatcher.of(a);
+        LazyDfaMatcher m = LazyDfaMatcher.of(a, 4);
+
+        Random rn = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            String s = random(rn, rn.nextInt(40));
+            Assert.assertEquals(s, nfa.matches(s), m.matches(s));
+            Assert.assertTrue(m.getCachedStates() <= 4);
+        }
+
+        LOGGER.info("hits {} misses {} evictions {} fallbacks {}", m
+                .getHits(), m.getMisses(), m.getEvictions(), m
+                .getFallbacks());
+
+        Assert.assertTrue(m.getEvictions() > 0);
+        Assert.assertTrue(m.getFallbacks() > 0);
+
+        m.resetStatistics();
+        Assert.assertEquals(0, m.getHits());
+        Assert.assertEquals(0, m.getEvictions());
+    }
+
+    @Test
+    public void testSingleFlush() {
+        Automaton a = Fixtures.getBlowup(8);
+        LazyDfaMatcher m = LazyDfaMatcher.of(a, 4);
+
+        // every prefix of a^6 reaches a new state, so the cache flushes once
+        Assert.assertEquals(NfaMatcher.of(a).matches("aaaaaa"), m.matches
+                ("aaaaaa"));
+        Assert.assertEquals(1, m.getFlushes());
+        Assert.assertEquals(0, m.getFallbacks());
+    }
+
+    @Test
+    public void testLargeCache() {
+        Automaton a = Fixtures.getBlowup(4);
+        NfaMatcher nfa = NfaMatcher.of(a);
+        LazyDfaMatcher m = LazyDfaMatcher.of(a, 1000);
+
+        Random rn = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            String s = random(rn, rn.nextInt(40));
+            Assert.assertEquals(s, nfa.matches(s), m.matches(s));
+        }
+
+        Assert.assertEquals(0, m.getEvictions());
+        Assert.assertTrue(m.getHits() > m.getMisses());
+    }
+}
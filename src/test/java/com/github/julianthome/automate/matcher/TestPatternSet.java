@@ -0,0 +1,101 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.Automaton;
+import com.github.julianthome.automate.core.AutomatonFactory;
+import com.github.julianthome.automate.core.Fixtures;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestPatternSet {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestPatternSet.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    @Test
+    public void testTags() {
+        MultiMatcher m = new PatternSet()
+                .add(7, Fixtures.getLiteral("ab"))
+                .add(3, fact.getAllAccepting().concat(Fixtures.getLiteral
+                        ("b")))
+                .add(5, Fixtures.getLiteral("a").star())
+                .compile();
+
+        Assert.assertArrayEquals(new int[]{3, 7}, m.match("ab"));
+        Assert.assertArrayEquals(new int[]{3}, m.match("xb"));
+        Assert.assertArrayEquals(new int[]{5}, m.match("aaa"));
+        Assert.assertArrayEquals(new int[]{5}, m.match(""));
+        Assert.assertArrayEquals(new int[0], m.match("ba"));
+        Assert.assertFalse(m.matchesAny("ba"));
+        Assert.assertTrue(m.matchesAny("bb"));
+    }
+
+    @Test
+    public void testRandom() {
+        List<Automaton> autos = Arrays.asList(
+                Fixtures.getLiteral("ab").union(Fixtures.getLiteral("bcd")),
+                Fixtures.getLiteral("aba").union(Fixtures.getLiteral("b"))
+                        .plus(),
+                fact.getAllAccepting().concat(Fixtures.getLiteral("c")),
+                Fixtures.getLiteral("a").concat(fact.getAllAccepting())
+                        .concat(Fixtures.getLiteral("d")),
+                Fixtures.getLiteral("a").union(Fixtures.getLiteral("bc")
+                        .star()));
+
+        PatternSet ps = new PatternSet();
+        for (int i = 0; i < autos.size(); i++)
+            ps.add(i, autos.get(i));
+
+        MultiMatcher m = ps.compile();
+        Random rn = new Random(5);
+
+        for (int i = 0; i < 300; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(8);
+            for (int j = 0; j < len; j++)
+                sb.append("abcd".charAt(rn.nextInt(4)));
+            String s = sb.toString();
+
+            int [] exp = new int[autos.size()];
+            int cnt = 0;
+            for (int k = 0; k < autos.size(); k++) {
+                if (autos.get(k).match(s))
+                    exp[cnt++] = k;
+            }
+
+            Assert.assertArrayEquals(Arrays.copyOf(exp, cnt), m.match(s));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.Automaton;
+import com.github.julianthome.automate.core.AutomatonBuilder;
+import com.github.julianthome.automate.core.AutomatonFactory;
+import com.github.julianthome.automate.core.Fixtures;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+public class TestRequiredLiterals {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestRequiredLiterals.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    private Automaton digits() {
+        return fact.getNewAutomaton().append('0', '9').plus();
+    }
+
+    // digits.digits.digits.digits
+    private Automaton getIp() {
+        Automaton a = digits();
+        for (int i = 0; i < 3; i++)
+            a = a.concat(Fixtures.getLiteral(".")).concat(digits());
+        return a;
+    }
+
+    @Test
+    public void testPrefixSuffix() {
+        Automaton a = Fixtures.getLiteral("abc").concat(digits()).concat
+                (Fixtures.getLiteral(".")).concat(digits()).concat(Fixtures
+                .getLiteral("xyz"));
+
+        RequiredLiterals lits = RequiredLiterals.of(a);
+
+        LOGGER.info("factors {}", lits.getFactors());
+
+        Assert.assertEquals("abc", lits.getPrefix());
+        Assert.assertEquals("xyz", lits.getSuffix());
+        Assert.assertTrue(lits.getFactors().contains("."));
+
+        Assert.assertTrue(lits.mayMatch("abc1.2xyz"));
+        Assert.assertFalse(lits.mayMatch("abc12xyz"));
+        Assert.assertFalse(lits.mayMatch("abd1.2xyz"));
+        Assert.assertFalse(lits.mayMatch("abc1.2xy"));
+        Assert.assertFalse(lits.mayMatch("ab"));
+    }
+
+    @Test
+    public void testFactors() {
+        Automaton a = Fixtures.getLiteral("foo.bar").union(Fixtures
+                .getLiteral("baz.qux"));
+        RequiredLiterals lits = RequiredLiterals.of(a);
+
+        LOGGER.info("factors {}", lits.getFactors());
+
+        Assert.assertEquals("", lits.getPrefix());
+        Assert.assertEquals("", lits.getSuffix());
+        Assert.assertTrue(lits.getFactors().contains("."));
+        Assert.assertTrue(lits.getFactors().contains("ba"));
+        Assert.assertFalse(lits.mayMatch("fooxbar"));
+
+        RequiredLiterals ip = RequiredLiterals.of(getIp());
+        Assert.assertTrue(ip.getFactors().contains("."));
+        Assert.assertFalse(ip.isTrivial());
+    }
+
+    @Test
+    public void testTrivial() {
+        Assert.assertTrue(RequiredLiterals.of(fact.getAllAccepting())
+                .isTrivial());
+        Assert.assertTrue(RequiredLiterals.of(digits().union(Fixtures
+                .getLiteral("x"))).isTrivial());
+        Assert.assertTrue(RequiredLiterals.of(Fixtures.getLiteral("ab")
+                .optional()).isTrivial());
+    }
+
+    @Test
+    public void testPrefilter() {
+        Automaton a = getIp();
+        CompiledMatcher m = a.compile();
+        Searcher sr = Searcher.of(a);
+
+        Assert.assertTrue(m.matches("10.0.0.1"));
+        Assert.assertFalse(m.matches("10001"));
+        Assert.assertEquals(new MatchSpan(3, 12), sr.find("ip 127.0.0.1 " +
+                "x"));
+        Assert.assertNull(sr.find("no address here"));
+
+        Random rn = new Random(9);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = rn.nextInt(12);
+            for (int j = 0; j < len; j++)
+                sb.append("12.a".charAt(rn.nextInt(4)));
+            String s = sb.toString();
+            Assert.assertEquals(s, a.match(s), m.matches(s));
+            Assert.assertTrue(s, !a.match(s) || RequiredLiterals.of(a)
+                    .mayMatch(s));
+        }
+    }
+
+    @Test
+    public void testLargeAutomaton() {
+
+        // id, one of many random words, and digits
+        Random rn = new Random(17);
+        AutomatonBuilder<Automaton> words = fact.getBuilder();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 10; j++)
+                sb.append((char) ('a' + rn.nextInt(26)));
+            words.addString(sb.toString());
+        }
+
+        Automaton a = Fixtures.getLiteral("id").concat(words.build())
+                .concat(Fixtures.getLiteral(".")).concat(digits());
+
+        long t = System.currentTimeMillis();
+        RequiredLiterals lits = RequiredLiterals.of(a);
+        LOGGER.info("{} states in {} ms", a.vertexSet().size(), System
+                .currentTimeMillis() - t);
+
+        // the factor search gives up early, but the result stays sound
+        Assert.assertEquals("id", lits.getPrefix());
+        Assert.assertFalse(lits.mayMatch("xy.1"));
+        Assert.assertTrue(lits.mayMatch(a.getShortestString()));
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * autoMate - yet another automaton library for Java
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package com.github.julianthome.automate.matcher;
+
+import com.github.julianthome.automate.core.Automaton;
+import com.github.julianthome.automate.core.AutomatonFactory;
+import com.github.julianthome.automate.core.BasicOperations;
+import com.github.julianthome.automate.core.Fixtures;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestSearcher {
+
+    final static Logger LOGGER = LoggerFactory.getLogger(TestSearcher.class);
+
+    private final AutomatonFactory fact = AutomatonFactory.getInstance();
+
+    // leftmost-longest, non-overlapping reference implementation
+    private List<MatchSpan> bruteForce(CompiledMatcher m, String s) {
+        List<MatchSpan> ret = new ArrayList<>();
+        int pos = 0;
+        while (pos <= s.length()) {
+            MatchSpan found = null;
+            for (int i = pos; i <= s.length() && found == null; i++) {
+                for (int j = s.length(); j >= i; j--) {
+                    if (m.matches(s.substring(i, j))) {
+                        found = new MatchSpan(i, j);
+                        break;
+                    }
+                }
+            }
+            if (found == null)
+                break;
+            ret.add(found);
+            pos = found.length() > 0 ? found.getEnd() : found.getEnd() + 1;
+        }
+        return ret;
+    }
+
+    @Test
+    public void testLeftmost() {
+        Searcher s = Searcher.of(Fixtures.getLiteral("ab").union(Fixtures
+                .getLiteral("bcde")));
+        Assert.assertEquals(Arrays.asList(new MatchSpan(0, 2)), s.findAll
+                ("abcde"));
+
+        s = Searcher.of(Fixtures.getLiteral("abcd").union(Fixtures
+                .getLiteral("bc")));
+        Assert.assertEquals(Arrays.asList(new MatchSpan(0, 4), new MatchSpan
+                (5, 7)), s.findAll("abcdabc"));
+    }
+
+    @Test
+    public void testEmptyMatches() {
+        Searcher s = Searcher.of(Fixtures.getLiteral("a").star());
+        Assert.assertEquals(Arrays.asList(new MatchSpan(0, 0), new MatchSpan
+                (1, 4), new MatchSpan(4, 4)), s.findAll("baaa"));
+    }
+
+    @Test
+    public void testRandom() {
+
+        List<Automaton> autos = Arrays.asList(
+                Fixtures.getLiteral("ab").union(Fixtures.getLiteral("bcde")),
+                Fixtures.getLiteral("aba").union(Fixtures.getLiteral("b"))
+                        .plus(),
+                fact.getAllAccepting().concat(Fixtures.getLiteral("x")),
+                Fixtures.getLiteral("x").concat(fact.getAllAccepting())
+                        .concat(Fixtures.getLiteral("y")),
+                Fixtures.getLiteral("a").union(Fixtures.getLiteral("bc")
+                        .star()));
+
+        Random rn = new Random(11);
+
+        for (Automaton a : autos) {
+            Searcher s = Searcher.of(a);
+            CompiledMatcher m = a.compile();
+            for (int i = 0; i < 100; i++) {
+                StringBuilder sb = new StringBuilder();
+                int len = rn.nextInt(12);
+                for (int j = 0; j < len; j++)
+                    sb.append("abcdexy".charAt(rn.nextInt(7)));
+                String str = sb.toString();
+                Assert.assertEquals(str, bruteForce(m, str), s.findAll(str));
+            }
+        }
+    }
+
+    @Test
+    public void testNfa() {
+
+        BasicOperations bop = BasicOperations.getInstance();
+        boolean old = bop.isDeferred();
+        bop.setDeferred(true);
+
+        List<Automaton> autos;
+        try {
+            // unminimized, with epsilon moves and several branches
+            autos = Arrays.asList(
+                    fact.getNewAutomaton().append('c', 'e').concat(Fixtures
+                            .getLiteral("c")),
+                    fact.getNewAutomaton().append('c', 'e').concat(Fixtures
+                            .getLiteral("c")).union(Fixtures.getLiteral("cd")
+                            .plus()).union(Fixtures.getLiteral("ec").star()
+                            .concat(Fixtures.getLiteral("d"))),
+                    Fixtures.getLiteral("c").union(Fixtures.getLiteral("cc"))
+                            .union(Fixtures.getLiteral("ccc")).plus());
+        } finally {
+            bop.setDeferred(old);
+        }
+
+        Random rn = new Random(13);
+
+        for (Automaton a : autos) {
+            Searcher s = Searcher.of(a);
+            CompiledMatcher m = a.compile();
+            for (int i = 0; i < 100; i++) {
+                StringBuilder sb = new StringBuilder();
+                int len = rn.nextInt(16);
+                for (int j = 0; j < len; j++)
+                    sb.append("cdex".charAt(rn.nextInt(4)));
+                String str = sb.toString();
+                Assert.assertEquals(str, bruteForce(m, str), s.findAll(str));
+            }
+        }
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        Searcher s = Searcher.of(Fixtures.getLiteral("x").concat(fact
+                .getNewAutomaton().append('0', '9').plus()));
+
+        Path tmp = Files.createTempFile("automate", ".txt");
+        try {
+            Files.write(tmp, "id x12 and x3, not x".getBytes
+                    (StandardCharsets.ISO_8859_1));
+
+            List<MatchSpan> exp = Arrays.asList(new MatchSpan(3, 6), new
+                    MatchSpan(11, 13));
+
+            Assert.assertEquals(exp, s.findAll(tmp));
+            Assert.assertEquals(exp, s.findAll(ByteBuffer.wrap(Files
+                    .readAllBytes(tmp))));
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+}